@@ -2,6 +2,7 @@ plugins {
   id("java")
   id("java-gradle-plugin")
   id("maven-publish")
+  id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.github.r0bbyyt"
@@ -21,6 +22,7 @@ repositories {
 dependencies {
   implementation("org.vineflower:vineflower:1.11.2")
   implementation("com.google.code.gson:gson:2.13.2")
+  implementation("org.ow2.asm:asm:9.8")
   implementation("org.jetbrains.gradle.plugin.idea-ext:org.jetbrains.gradle.plugin.idea-ext.gradle.plugin:1.3")
 
   testImplementation(platform("org.junit:junit-bom:5.10.0"))
@@ -41,6 +43,18 @@ tasks.test {
   useJUnitPlatform()
 }
 
+jmh {
+  jmhVersion.set("1.37")
+  resultFormat.set("JSON")
+  resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+  // Number of synthetic server classes, e.g. -PjmhClassCount=20000 or -PjmhDecompileClassCount=500
+  for ((property, parameter) in mapOf("jmhClassCount" to "classCount", "jmhDecompileClassCount" to "decompileClassCount")) {
+    findProperty(property)?.let { count ->
+      benchmarkParameters.put(parameter, objects.listProperty<String>().value(listOf(count.toString())))
+    }
+  }
+}
+
 publishing {
   publications {
     create<MavenPublication>("maven") {
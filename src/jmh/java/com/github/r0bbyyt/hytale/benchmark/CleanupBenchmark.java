@@ -0,0 +1,52 @@
+package com.github.r0bbyyt.hytale.benchmark;
+
+import com.github.r0bbyyt.hytale.util.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Deletion of a directory tree shaped like the decompile cache, one file per source unit
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class CleanupBenchmark {
+
+  private static final int FILES_PER_DIRECTORY = 64;
+  private static final byte[] CONTENT = new byte[2048];
+
+  @Param("2000")
+  public int classCount;
+
+  private Path directory;
+
+  @Setup(Level.Invocation)
+  public void setup() throws IOException {
+    this.directory = Files.createTempDirectory("hytale-benchmark");
+    for (int i = 0; i < this.classCount; i++) {
+      Path parent = Files.createDirectories(this.directory.resolve(Integer.toString(i / FILES_PER_DIRECTORY)));
+      Files.write(parent.resolve(i + ".java"), CONTENT);
+    }
+  }
+
+  @Benchmark
+  public void deleteDirectory() throws IOException {
+    Util.deleteDirectory(this.directory);
+  }
+}
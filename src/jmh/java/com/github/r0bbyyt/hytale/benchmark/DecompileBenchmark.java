@@ -0,0 +1,82 @@
+package com.github.r0bbyyt.hytale.benchmark;
+
+import com.github.r0bbyyt.hytale.decompile.ClassFilter;
+import com.github.r0bbyyt.hytale.decompile.ClassIndex;
+import com.github.r0bbyyt.hytale.decompile.Decompiler;
+import com.github.r0bbyyt.hytale.decompile.DecompileCache;
+import com.github.r0bbyyt.hytale.decompile.DecompileScope;
+import com.github.r0bbyyt.hytale.util.Util;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+// A full decompile of the synthetic server into an empty cache, as done by a single worker
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class DecompileBenchmark {
+
+  private static final ClassFilter SERVER_CLASSES = ClassFilter.of(List.of(DecompileScope.DEFAULT_INCLUDE), List.of());
+
+  // Separate from classCount, decompiling is orders of magnitude slower than the other stages
+  @Param("200")
+  public int decompileClassCount;
+
+  private Path workDir;
+  private Path serverJar;
+  private Path cacheDir;
+  private Map<String, String> units;
+  private Map<String, String> options;
+
+  @Setup
+  public void setup() throws IOException {
+    this.workDir = Files.createTempDirectory("hytale-benchmark");
+    this.serverJar = this.workDir.resolve("HytaleServer.jar");
+    this.cacheDir = this.workDir.resolve("decompiled");
+    SyntheticServerJar.write(this.serverJar, this.decompileClassCount);
+
+    this.units = new TreeMap<>();
+    for (ClassIndex.Unit unit : ClassIndex.read(this.serverJar, SERVER_CLASSES).units()) {
+      this.units.put(unit.name(), unit.hash());
+    }
+    this.options = new TreeMap<>(Decompiler.DEFAULT_OPTIONS);
+    this.options.put(IFernflowerPreferences.LOG_LEVEL, "warn");
+  }
+
+  @Setup(Level.Invocation)
+  public void clearCache() throws IOException {
+    Util.deleteDirectory(this.cacheDir);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Util.deleteDirectory(this.workDir);
+  }
+
+  @Benchmark
+  public void decompile() throws IOException {
+    Decompiler.decompile(this.serverJar.toFile(), this.units, new DecompileCache(this.cacheDir), this.options);
+  }
+}
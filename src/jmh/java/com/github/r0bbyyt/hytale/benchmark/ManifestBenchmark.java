@@ -0,0 +1,64 @@
+package com.github.r0bbyyt.hytale.benchmark;
+
+import com.github.r0bbyyt.hytale.manifest.json.AuthorInfoJson;
+import com.github.r0bbyyt.hytale.manifest.json.ManifestJson;
+import com.github.r0bbyyt.hytale.task.GenerateManifestTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Serialization of the manifests written by generateManifest
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ManifestBenchmark {
+
+  @Param({"1", "50"})
+  public int pluginCount;
+
+  private List<ManifestJson> manifests;
+
+  @Setup
+  public void setup() {
+    this.manifests = new ArrayList<>();
+    for (int i = 0; i < this.pluginCount; i++) {
+      this.manifests.add(new ManifestJson(
+        "com.example",
+        "Plugin" + i,
+        "1.0.0",
+        "Synthetic plugin " + i,
+        List.of(new AuthorInfoJson("Author", "author@example.com", "https://example.com")),
+        "https://example.com",
+        "com.example.Plugin" + i,
+        "*",
+        Map.of("com.example:Core", ">=1.0.0"),
+        Map.of(),
+        Map.of(),
+        List.of(),
+        false,
+        false
+      ));
+    }
+  }
+
+  @Benchmark
+  public String serialize() {
+    return GenerateManifestTask.createGson().toJson(this.manifests);
+  }
+}
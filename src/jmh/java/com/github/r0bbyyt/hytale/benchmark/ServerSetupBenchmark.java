@@ -0,0 +1,110 @@
+package com.github.r0bbyyt.hytale.benchmark;
+
+import com.github.r0bbyyt.hytale.decompile.ClassFilter;
+import com.github.r0bbyyt.hytale.decompile.ClassIndex;
+import com.github.r0bbyyt.hytale.decompile.Decompiler;
+import com.github.r0bbyyt.hytale.decompile.DecompileCache;
+import com.github.r0bbyyt.hytale.decompile.DecompileScope;
+import com.github.r0bbyyt.hytale.decompile.DecompileShards;
+import com.github.r0bbyyt.hytale.decompile.SourcesJar;
+import com.github.r0bbyyt.hytale.provider.ServerVersionSource;
+import com.github.r0bbyyt.hytale.util.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// The stages of setupServerDependency and hytaleSources that do not involve the decompiler itself
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ServerSetupBenchmark {
+
+  private static final int SHARDS = 4;
+  private static final ClassFilter SERVER_CLASSES = ClassFilter.of(List.of(DecompileScope.DEFAULT_INCLUDE), List.of());
+
+  @Param("2000")
+  public int classCount;
+
+  private Path workDir;
+  private Path serverJar;
+  private Path sourcesJar;
+  private ClassIndex index;
+  private DecompileCache cache;
+
+  @Setup
+  public void setup() throws IOException {
+    this.workDir = Files.createTempDirectory("hytale-benchmark");
+    this.serverJar = this.workDir.resolve("HytaleServer.jar");
+    this.sourcesJar = this.workDir.resolve("server-sources.jar");
+    SyntheticServerJar.write(this.serverJar, this.classCount);
+
+    this.index = ClassIndex.read(this.serverJar, SERVER_CLASSES);
+    this.cache = DecompileCache.forOptions(this.workDir.resolve("decompiled"), Decompiler.DEFAULT_OPTIONS);
+    for (ClassIndex.Unit unit : this.index.units()) {
+      this.cache.store(unit.hash(), syntheticSource(unit.name()));
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Util.deleteDirectory(this.workDir);
+  }
+
+  @Benchmark
+  public String readVersion() throws IOException {
+    return ServerVersionSource.readVersion(this.serverJar.toFile());
+  }
+
+  @Benchmark
+  public String checksum() throws IOException {
+    return Util.sha256(this.serverJar);
+  }
+
+  @Benchmark
+  public ClassIndex indexClasses() throws IOException {
+    return ClassIndex.read(this.serverJar, SERVER_CLASSES);
+  }
+
+  @Benchmark
+  public List<Set<String>> partitionShards() {
+    return DecompileShards.partition(this.index.units(), SHARDS);
+  }
+
+  @Benchmark
+  public List<String> writeSourcesJar() throws IOException {
+    return SourcesJar.write(this.index, this.cache, this.sourcesJar);
+  }
+
+  private static String syntheticSource(String unit) {
+    StringBuilder source = new StringBuilder("public class ").append(unit).append(" {\n");
+    for (int i = 0; i < 8; i++) {
+      source.append("    public int compute").append(i).append("(int limit) {\n")
+        .append("        int sum = this.value;\n")
+        .append("        for (int i = 0; i < limit; i++) {\n")
+        .append("            sum ^= i;\n")
+        .append("        }\n")
+        .append("        return sum;\n")
+        .append("    }\n");
+    }
+    return source.append("}\n").toString();
+  }
+}
@@ -0,0 +1,125 @@
+package com.github.r0bbyyt.hytale.benchmark;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+// Generates a server JAR of configurable size, so the benchmarks run without a Hytale installation
+public final class SyntheticServerJar {
+
+  public static final String VERSION = "0.0.0-benchmark";
+  public static final String SERVER_PACKAGE = "com/hypixel/hytale/synthetic";
+  public static final String LIBRARY_PACKAGE = "org/example/library";
+
+  private static final int CLASSES_PER_PACKAGE = 50;
+  private static final int METHODS_PER_CLASS = 8;
+  private static final int INNER_CLASS_INTERVAL = 4;
+  private static final int LIBRARY_CLASS_INTERVAL = 10;
+
+  private SyntheticServerJar() {
+  }
+
+  public static void write(Path target, int classCount) throws IOException {
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifest.getMainAttributes().put(Attributes.Name.IMPLEMENTATION_VERSION, VERSION);
+
+    try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(target), manifest)) {
+      for (int i = 0; i < classCount; i++) {
+        String className = SERVER_PACKAGE + (i / CLASSES_PER_PACKAGE) + "/Synthetic" + i;
+        putClass(jos, className, i);
+        if (i % INNER_CLASS_INTERVAL == 0) {
+          putClass(jos, className + "$Inner", i);
+        }
+        // Not decompiled, but still present in the real server JAR
+        if (i % LIBRARY_CLASS_INTERVAL == 0) {
+          putClass(jos, LIBRARY_PACKAGE + "/Library" + i, i);
+        }
+      }
+    }
+  }
+
+  private static void putClass(JarOutputStream jos, String className, int seed) throws IOException {
+    jos.putNextEntry(new JarEntry(className + ".class"));
+    jos.write(generateClass(className, seed));
+    jos.closeEntry();
+  }
+
+  private static byte[] generateClass(String className, int seed) {
+    ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+    writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC, className, null, "java/lang/Object", null);
+    writer.visitField(Opcodes.ACC_PRIVATE, "value", "I", null, null).visitEnd();
+
+    MethodVisitor init = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+    init.visitCode();
+    init.visitVarInsn(Opcodes.ALOAD, 0);
+    init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+    init.visitInsn(Opcodes.RETURN);
+    init.visitMaxs(0, 0);
+    init.visitEnd();
+
+    for (int method = 0; method < METHODS_PER_CLASS; method++) {
+      generateMethod(writer, className, "compute" + method, method + 2, seed);
+    }
+
+    writer.visitEnd();
+    return writer.toByteArray();
+  }
+
+  // int name(int limit) { int sum = value; for (int i = 0; i < limit; i++) { if (i % divisor == 0) sum += i * seed; else sum ^= i; } return sum; }
+  private static void generateMethod(ClassWriter writer, String className, String name, int divisor, int seed) {
+    MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC, name, "(I)I", null, null);
+    Label condition = new Label();
+    Label body = new Label();
+    Label otherwise = new Label();
+    Label increment = new Label();
+
+    mv.visitCode();
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitFieldInsn(Opcodes.GETFIELD, className, "value", "I");
+    mv.visitVarInsn(Opcodes.ISTORE, 2);
+    mv.visitInsn(Opcodes.ICONST_0);
+    mv.visitVarInsn(Opcodes.ISTORE, 3);
+    mv.visitJumpInsn(Opcodes.GOTO, condition);
+
+    mv.visitLabel(body);
+    mv.visitVarInsn(Opcodes.ILOAD, 3);
+    mv.visitLdcInsn(divisor);
+    mv.visitInsn(Opcodes.IREM);
+    mv.visitJumpInsn(Opcodes.IFNE, otherwise);
+    mv.visitVarInsn(Opcodes.ILOAD, 2);
+    mv.visitVarInsn(Opcodes.ILOAD, 3);
+    mv.visitLdcInsn(seed);
+    mv.visitInsn(Opcodes.IMUL);
+    mv.visitInsn(Opcodes.IADD);
+    mv.visitVarInsn(Opcodes.ISTORE, 2);
+    mv.visitJumpInsn(Opcodes.GOTO, increment);
+
+    mv.visitLabel(otherwise);
+    mv.visitVarInsn(Opcodes.ILOAD, 2);
+    mv.visitVarInsn(Opcodes.ILOAD, 3);
+    mv.visitInsn(Opcodes.IXOR);
+    mv.visitVarInsn(Opcodes.ISTORE, 2);
+
+    mv.visitLabel(increment);
+    mv.visitIincInsn(3, 1);
+
+    mv.visitLabel(condition);
+    mv.visitVarInsn(Opcodes.ILOAD, 3);
+    mv.visitVarInsn(Opcodes.ILOAD, 1);
+    mv.visitJumpInsn(Opcodes.IF_ICMPLT, body);
+    mv.visitVarInsn(Opcodes.ILOAD, 2);
+    mv.visitInsn(Opcodes.IRETURN);
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+  }
+}
@@ -1,23 +1,38 @@
 package com.github.r0bbyyt.hytale;
 
+import com.github.r0bbyyt.hytale.bundle.BundleSettings;
+import com.github.r0bbyyt.hytale.decompile.Decompiler;
+import com.github.r0bbyyt.hytale.decompile.DecompileScope;
 import com.github.r0bbyyt.hytale.manifest.PluginManifest;
+import com.github.r0bbyyt.hytale.manifest.ValidationSettings;
+import com.github.r0bbyyt.hytale.pack.ServerPackSettings;
+import com.github.r0bbyyt.hytale.run.JvmSettings;
+import com.github.r0bbyyt.hytale.run.ServerInstance;
 import org.gradle.api.Action;
 import org.gradle.api.NamedDomainObjectContainer;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.ProjectLayout;
+import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Nested;
 
 import javax.inject.Inject;
 import java.net.InetSocketAddress;
+import java.time.Duration;
 
 public abstract class HytaleExtension {
 
   public static final String NAME = "hytale";
   public static final String DEFAULT_MAIN_CLASS = "com.hypixel.hytale.Main";
+  public static final String DEFAULT_PLUGIN_BASE_CLASS = "com.hypixel.hytale.server.core.plugin.JavaPlugin";
   public static final String DEFAULT_BIND_ADDRESS = "0.0.0.0";
   public static final int DEFAULT_BIND_PORT = 25565;
   public static final String DEFAULT_WORKING_DIR = "run";
+  public static final String DEFAULT_INSTANCES_DIR = "run-instances";
+  public static final Duration DEFAULT_DECOMPILER_DAEMON_IDLE_TIMEOUT = Duration.ofMinutes(30);
+  public static final Duration DEFAULT_CDS_TRAINING_DURATION = Duration.ofSeconds(60);
+  public static final int DEFAULT_CACHE_RETAINED_VERSIONS = 3;
+  public static final long DEFAULT_DECOMPILE_CACHE_MAX_SIZE = 2048;
 
   @Inject
   public HytaleExtension(ProjectLayout layout) {
@@ -27,7 +42,19 @@ public abstract class HytaleExtension {
     this.getBindPort().convention(DEFAULT_BIND_PORT);
     this.getDisableSentry().convention(true);
     this.getRunConfigMainClass().convention(DEFAULT_MAIN_CLASS);
+    this.getPluginBaseClass().convention(DEFAULT_PLUGIN_BASE_CLASS);
     this.getWorkingDirectory().convention(layout.getProjectDirectory().dir(DEFAULT_WORKING_DIR));
+    this.getHotReload().convention(true);
+    this.getCdsArchive().convention(false);
+    this.getCdsTrainingDuration().convention(DEFAULT_CDS_TRAINING_DURATION);
+    this.getDecompilerOptions().convention(Decompiler.DEFAULT_OPTIONS);
+    this.getDecompilerRenameMembers().convention(false);
+    this.getDecompilerIncludeClasspath().convention(false);
+    this.getDecompilerDaemon().convention(false);
+    this.getDecompilerDaemonIdleTimeout().convention(DEFAULT_DECOMPILER_DAEMON_IDLE_TIMEOUT);
+    this.getPublicationStrategy().convention(PublicationStrategy.COPY);
+    this.getCacheRetainedVersions().convention(DEFAULT_CACHE_RETAINED_VERSIONS);
+    this.getDecompileCacheMaxSize().convention(DEFAULT_DECOMPILE_CACHE_MAX_SIZE);
   }
 
   public abstract DirectoryProperty getInstallationPath();
@@ -46,6 +73,93 @@ public abstract class HytaleExtension {
 
   public abstract DirectoryProperty getWorkingDirectory();
 
+  // Server class every manifest main class has to extend, checked by checkHytaleApi
+  public abstract Property<String> getPluginBaseClass();
+
+  @Nested
+  public abstract JvmSettings getJvm();
+
+  public void jvm(Action<? super JvmSettings> action) {
+    action.execute(this.getJvm());
+  }
+
+  // Additional servers started next to each other by runServers, see ServerInstance
+  public abstract NamedDomainObjectContainer<ServerInstance> getServers();
+
+  public void servers(Action<? super NamedDomainObjectContainer<ServerInstance>> action) {
+    action.execute(this.getServers());
+  }
+
+  // Redefines changed plugin classes in a server started by runServer
+  public abstract Property<Boolean> getHotReload();
+
+  // Starts the server from a class data sharing archive created by a training run of hytaleCdsArchive
+  public abstract Property<Boolean> getCdsArchive();
+
+  // How long the training run keeps the server running before stopping it
+  public abstract Property<Duration> getCdsTrainingDuration();
+
+  // Sized from the selected classes and the physical memory unless set
+  public abstract Property<Integer> getDecompilerShards();
+
+  public abstract Property<String> getDecompilerHeapSize();
+
+  // Passed to Vineflower as is, changing them invalidates the cached sources
+  public abstract MapProperty<String, String> getDecompilerOptions();
+
+  // Renames obfuscated members, extra work and memory per class
+  public abstract Property<Boolean> getDecompilerRenameMembers();
+
+  // Also loads the bytecode of the decompiler JVM classpath, the server JAR itself is always available
+  public abstract Property<Boolean> getDecompilerIncludeClasspath();
+
+  // Decompiles in a long-lived JVM that stays warm across builds, with decompilerHeapSize shared by all shards
+  public abstract Property<Boolean> getDecompilerDaemon();
+
+  public abstract Property<Duration> getDecompilerDaemonIdleTimeout();
+
+  @Nested
+  public abstract DecompileScope getDecompile();
+
+  public void decompile(Action<? super DecompileScope> action) {
+    action.execute(this.getDecompile());
+  }
+
+  // Packing of the deployable plugin JAR built by hytaleJar
+  @Nested
+  public abstract BundleSettings getBundle();
+
+  public void bundle(Action<? super BundleSettings> action) {
+    action.execute(this.getBundle());
+  }
+
+  // Content of the production server pack built by hytaleServerPack
+  @Nested
+  public abstract ServerPackSettings getServerPack();
+
+  public void serverPack(Action<? super ServerPackSettings> action) {
+    action.execute(this.getServerPack());
+  }
+
+  // Plugins and mods validateHytalePlugins resolves the plugins of this project against
+  @Nested
+  public abstract ValidationSettings getValidation();
+
+  public void validation(Action<? super ValidationSettings> action) {
+    action.execute(this.getValidation());
+  }
+
+  public abstract Property<PublicationStrategy> getPublicationStrategy();
+
+  public abstract Property<Boolean> getSharedCache();
+
+  public abstract DirectoryProperty getCacheDirectory();
+
+  public abstract Property<Integer> getCacheRetainedVersions();
+
+  // In megabytes
+  public abstract Property<Long> getDecompileCacheMaxSize();
+
   @Nested
   public abstract NamedDomainObjectContainer<PluginManifest> getPlugins();
 
@@ -71,4 +185,11 @@ public abstract class HytaleExtension {
       return this.value;
     }
   }
+
+  public enum PublicationStrategy {
+    COPY,
+    HARD_LINK,
+    REFLINK,
+    SKIP_UNCHANGED
+  }
 }
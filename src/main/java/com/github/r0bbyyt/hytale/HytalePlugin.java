@@ -1,58 +1,163 @@
 package com.github.r0bbyyt.hytale;
 
+import com.github.r0bbyyt.hytale.bundle.BundleSettings;
+import com.github.r0bbyyt.hytale.decompile.Decompiler;
+import com.github.r0bbyyt.hytale.decompile.DecompilerDaemonService;
 import com.github.r0bbyyt.hytale.intellij.IdeaRunConfigurationSetup;
+import com.github.r0bbyyt.hytale.manifest.PluginManifest;
+import com.github.r0bbyyt.hytale.manifest.ValidationSettings;
+import com.github.r0bbyyt.hytale.metrics.HytaleMetricsService;
+import com.github.r0bbyyt.hytale.provider.ServerVersionSource;
+import com.github.r0bbyyt.hytale.run.CdsArgumentProvider;
+import com.github.r0bbyyt.hytale.run.CdsArguments;
+import com.github.r0bbyyt.hytale.run.CreateWorkingDirectory;
+import com.github.r0bbyyt.hytale.run.DevAgentArgumentProvider;
+import com.github.r0bbyyt.hytale.run.JvmArguments;
+import com.github.r0bbyyt.hytale.run.JvmSettings;
+import com.github.r0bbyyt.hytale.run.PrepareInstanceDirectory;
+import com.github.r0bbyyt.hytale.run.ServerArgumentProvider;
+import com.github.r0bbyyt.hytale.run.ServerArguments;
+import com.github.r0bbyyt.hytale.api.ApiIndex;
+import com.github.r0bbyyt.hytale.task.BundlePluginJarTask;
+import com.github.r0bbyyt.hytale.task.CheckServerApiTask;
+import com.github.r0bbyyt.hytale.task.CreateCdsArchiveTask;
+import com.github.r0bbyyt.hytale.task.DecompileSourcesTask;
+import com.github.r0bbyyt.hytale.task.GenerateDevAgentTask;
 import com.github.r0bbyyt.hytale.task.GenerateManifestTask;
+import com.github.r0bbyyt.hytale.task.RunServersTask;
 import com.github.r0bbyyt.hytale.task.SetupServerDependencyTask;
+import com.github.r0bbyyt.hytale.task.StageServerPackTask;
+import com.github.r0bbyyt.hytale.task.ValidatePluginsTask;
+import com.github.r0bbyyt.hytale.util.Util;
+import org.gradle.api.JavaVersion;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.dsl.RepositoryHandler;
+import org.gradle.api.attributes.Bundling;
+import org.gradle.api.attributes.Category;
+import org.gradle.api.attributes.LibraryElements;
+import org.gradle.api.attributes.Usage;
+import org.gradle.api.configuration.BuildFeatures;
+import org.gradle.api.file.Directory;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.plugins.BasePluginExtension;
+import org.gradle.api.plugins.JavaPluginExtension;
 import org.gradle.api.plugins.PluginManager;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.tasks.JavaExec;
 import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.SourceSetContainer;
 import org.gradle.api.tasks.TaskContainer;
 import org.gradle.api.tasks.TaskProvider;
+import org.gradle.api.tasks.bundling.Compression;
+import org.gradle.api.tasks.bundling.Tar;
+import org.gradle.api.tasks.bundling.Zip;
+import org.gradle.jvm.toolchain.JavaLanguageVersion;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.jvm.toolchain.JavaToolchainService;
+import org.gradle.jvm.toolchain.JavaToolchainSpec;
 import org.gradle.language.jvm.tasks.ProcessResources;
 import org.gradle.plugins.ide.idea.IdeaPlugin;
+import org.gradle.plugins.ide.idea.model.IdeaModel;
 import org.jetbrains.gradle.ext.IdeaExtPlugin;
+import org.jetbrains.gradle.ext.ProjectSettings;
+import org.jetbrains.gradle.ext.TaskTriggersConfig;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
 
-import java.io.IOException;
+import javax.inject.Inject;
+import java.io.File;
+import java.net.URI;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class HytalePlugin implements Plugin<Project> {
+public abstract class HytalePlugin implements Plugin<Project> {
 
   public static final String DEFAULT_GROUP = "hytale";
 
   public static final String TASK_GENERATE_MANIFEST = "generateManifest";
   public static final String TASK_SETUP_SERVER_DEPENDENCY = "setupServerDependency";
+  public static final String TASK_GENERATE_RUN_CONFIGURATION = "generateIdeaRunConfiguration";
+  public static final String TASK_DECOMPILE_SOURCES = "hytaleSources";
+  public static final String TASK_RUN_SERVER = "runServer";
+  public static final String TASK_GENERATE_DEV_AGENT = "generateDevAgent";
+  public static final String TASK_CDS_ARCHIVE = "hytaleCdsArchive";
+  public static final String TASK_RUN_SERVERS = "runServers";
+  public static final String TASK_PREPARE_SERVER = "prepareServer";
+  public static final String TASK_BUNDLE_JAR = "hytaleJar";
+  public static final String TASK_VALIDATE_PLUGINS = "validateHytalePlugins";
+  public static final String TASK_ASSEMBLE = "assemble";
+  public static final String TASK_CHECK_API = "checkHytaleApi";
+  public static final String TASK_CHECK = "check";
+  public static final String TASK_SERVER_PACK = "hytaleServerPack";
+  public static final String TASK_SERVER_PACK_ZIP = "hytaleServerPackZip";
+  public static final String TASK_SERVER_PACK_TAR = "hytaleServerPackTar";
+  public static final String TASK_IDEA = "idea";
   public static final String TASK_PROCESS_RESOURCES = "processResources";
   public static final String TASK_COMPILE_JAVA = "compileJava";
 
   public static final String SERVER_SUBDIRECTORY = "Server";
   public static final String SERVER_JAR_NAME = "HytaleServer.jar";
   public static final String GENERATED_RESOURCES_DIR = "generated/resources";
+  public static final String PLUGIN_MANIFESTS_DIR = "hytale/manifests";
+  public static final String MOD_JAR_PATTERN = "*.jar";
   public static final String HYTALE_CACHE_DIR = ".gradle/hytale";
+  public static final String SHARED_CACHE_DIR = "caches/hytale";
+  public static final String CACHE_LOCK_FILE = "cache.lock";
   public static final String LOCAL_REPO_SUBDIR = "repo";
-  public static final String VERSION_CACHE_SUBDIR = "cache";
+  public static final String DECOMPILE_CACHE_SUBDIR = "decompiled";
+  public static final String DECOMPILER_DAEMON_SUBDIR = "daemon";
 
   public static final String JAVA_PLUGIN_ID = "java";
-  public static final String IDEA_PLUGIN_ID = "idea";
 
   public static final String CONFIGURATION_IMPLEMENTATION = "implementation";
-  public static final String VERSION_FALLBACK = "+";
+  public static final String CONFIGURATION_SHADE = "shade";
+  public static final String CONFIGURATION_SHADE_CLASSPATH = "shadeClasspath";
+  public static final String CONFIGURATION_HYTALE_PLUGIN = "hytalePlugin";
+  public static final String CONFIGURATION_HYTALE_MODS = "hytaleMods";
+  public static final String USAGE_HYTALE_PLUGIN = "hytale-plugin";
+  public static final String BUNDLE_JAR_DIR = "libs";
+  public static final String BUNDLE_JAR_SUFFIX = "-plugin.jar";
+  public static final String SERVER_PACK_DIR = "hytale/server-pack";
+  public static final String SERVER_PACK_CLASSIFIER = "server";
   public static final String HYTALE_REPO_NAME = "HytaleLocalRepo";
 
+  public static final String PROPERTY_SHARED_CACHE = "hytale.sharedCache";
+  public static final String PROPERTY_CACHE_DIR = "hytale.cacheDir";
+
+  @Inject
+  protected abstract BuildFeatures getBuildFeatures();
 
   @Override
   public void apply(Project project) {
     PluginManager pluginManager = project.getPluginManager();
     pluginManager.apply(IdeaPlugin.class);
-    pluginManager.apply(IdeaExtPlugin.class);
+    // idea-ext reaches into the root project, so it must only be applied there
+    if (project.getPath().equals(Project.PATH_SEPARATOR)) {
+      pluginManager.apply(IdeaExtPlugin.class);
+    }
 
     HytaleExtension extension = project.getExtensions().create(
       HytaleExtension.NAME,
       HytaleExtension.class
     );
 
+    // One service per project, so every project writes its own report
+    Provider<HytaleMetricsService> metricsService = project.getGradle().getSharedServices().registerIfAbsent(
+      HytaleMetricsService.NAME + project.getPath(),
+      HytaleMetricsService.class,
+      spec -> spec.getParameters().getReportFile().set(
+        project.getLayout().getBuildDirectory().file(HytaleMetricsService.REPORT_FILE)
+      )
+    );
+
     TaskContainer tasks = project.getTasks();
     TaskProvider<GenerateManifestTask> generateManifest = tasks.register(
       TASK_GENERATE_MANIFEST,
@@ -60,14 +165,43 @@ public class HytalePlugin implements Plugin<Project> {
       task -> {
         task.setGroup(DEFAULT_GROUP);
         task.setDescription("Generates manifest.json from plugin configurations");
+        task.getMetricsService().set(metricsService);
+        task.usesService(metricsService);
         task.getPlugins().addAll(extension.getPlugins());
         task.getOutputDirectory().set(project.getLayout().getBuildDirectory().dir(GENERATED_RESOURCES_DIR));
+        task.getPluginManifestsDirectory().set(project.getLayout().getBuildDirectory().dir(PLUGIN_MANIFESTS_DIR));
+      }
+    );
+
+    ValidationSettings validation = extension.getValidation();
+    TaskProvider<ValidatePluginsTask> validatePlugins = tasks.register(
+      TASK_VALIDATE_PLUGINS,
+      ValidatePluginsTask.class,
+      task -> {
+        task.setGroup(DEFAULT_GROUP);
+        task.setDescription("Checks plugin dependencies against the mods and writes the resulting load order");
+        task.getMetricsService().set(metricsService);
+        task.usesService(metricsService);
+        task.getManifests().from(generateManifest.flatMap(GenerateManifestTask::getPluginManifestsDirectory));
+        // The hytaleJar output of this project carries the same manifests, only the other mods are added
+        task.getModJars().from(extension.getServerPack().getMods());
+        task.getModJars().from((Callable<Object>) () -> validation.getModsDirectory().isPresent()
+          ? validation.getModsDirectory().get().getAsFileTree().matching(files -> files.include(MOD_JAR_PATTERN))
+          : List.of());
+        task.getProvidedPlugins().set(validation.getProvidedPlugins());
+        task.getLoadOrderFile().set(project.getLayout().getBuildDirectory().file(ValidatePluginsTask.LOAD_ORDER_FILE));
       }
     );
 
     Path hytaleCacheDir = project.getRootDir().toPath().resolve(HYTALE_CACHE_DIR);
-    Path repoDir = hytaleCacheDir.resolve(LOCAL_REPO_SUBDIR);
-    Path versionCacheFilePath = hytaleCacheDir.resolve(VERSION_CACHE_SUBDIR).resolve(SetupServerDependencyTask.VERSION_CACHE_FILE);
+    this.configureCacheDirectory(project, extension, hytaleCacheDir);
+    Provider<Directory> repoDir = extension.getCacheDirectory().dir(LOCAL_REPO_SUBDIR);
+
+    Provider<RegularFile> serverJar = extension.getInstallationPath().file(SERVER_SUBDIRECTORY + "/" + SERVER_JAR_NAME);
+    Provider<String> serverVersion = project.getProviders().of(
+      ServerVersionSource.class,
+      spec -> spec.getParameters().getServerJar().set(serverJar)
+    );
 
     TaskProvider<SetupServerDependencyTask> setupServerDependency = tasks.register(
       TASK_SETUP_SERVER_DEPENDENCY,
@@ -75,17 +209,86 @@ public class HytalePlugin implements Plugin<Project> {
       task -> {
         task.setGroup(DEFAULT_GROUP);
         task.setDescription("Sets up the Hytale server JAR as a Maven dependency");
-        task.getInstallationPath().set(extension.getInstallationPath());
-        task.getServerSubdirectory().set(SERVER_SUBDIRECTORY);
-        task.getServerJarName().set(SERVER_JAR_NAME);
-        task.getRepositoryDirectory().set(repoDir.toFile());
-        task.getVersionCacheFile().set(versionCacheFilePath.toFile());
+        task.getMetricsService().set(metricsService);
+        task.usesService(metricsService);
+        task.getServerJar().set(serverJar);
+        task.getServerVersion().set(serverVersion);
+        task.getPublicationStrategy().set(extension.getPublicationStrategy());
+        task.getCacheLockFile().set(extension.getCacheDirectory().file(CACHE_LOCK_FILE));
+        task.getRetainedVersions().set(extension.getCacheRetainedVersions());
+        task.getServerArtifact().set(this.artifactFile(repoDir, serverVersion, SetupServerDependencyTask.JAR_EXTENSION));
+        task.getPomArtifact().set(this.artifactFile(repoDir, serverVersion, SetupServerDependencyTask.POM_EXTENSION));
+        task.getPublishedFingerprintFile().set(this.artifactFile(
+          repoDir,
+          serverVersion,
+          SetupServerDependencyTask.FINGERPRINT_EXTENSION
+        ));
+        task.getFingerprintFile().set(
+          project.getLayout().getBuildDirectory().file(SetupServerDependencyTask.LOCAL_FINGERPRINT_FILE)
+        );
       }
     );
+    Provider<DecompilerDaemonService> decompilerDaemon = project.getGradle().getSharedServices().registerIfAbsent(
+      DecompilerDaemonService.NAME + project.getPath(),
+      DecompilerDaemonService.class,
+      spec -> {
+        spec.getParameters().getHeapSize().set(extension.getDecompilerHeapSize());
+        spec.getParameters().getIdleTimeout().set(extension.getDecompilerDaemonIdleTimeout());
+      }
+    );
+    // Not part of the compilation, only the IDE needs the sources
+    TaskProvider<DecompileSourcesTask> decompileSources = tasks.register(
+      TASK_DECOMPILE_SOURCES,
+      DecompileSourcesTask.class,
+      task -> {
+        task.setGroup(DEFAULT_GROUP);
+        task.setDescription("Decompiles the Hytale server into a sources JAR next to the server dependency");
+        task.getMetricsService().set(metricsService);
+        task.usesService(metricsService);
+        task.getServerJar().set(serverJar);
+        // Explicit decompilerOptions win over the typed properties
+        task.getDecompilerOptions().put(
+          IFernflowerPreferences.RENAME_ENTITIES,
+          extension.getDecompilerRenameMembers().map(Decompiler::flag)
+        );
+        task.getDecompilerOptions().put(
+          IFernflowerPreferences.INCLUDE_ENTIRE_CLASSPATH,
+          extension.getDecompilerIncludeClasspath().map(Decompiler::flag)
+        );
+        task.getDecompilerOptions().putAll(extension.getDecompilerOptions());
+        task.getIncludes().set(extension.getDecompile().getIncludes());
+        task.getExcludes().set(extension.getDecompile().getExcludes());
+        task.getReferencedOnly().set(extension.getDecompile().getReferencedOnly());
+        task.getDecompilerShards().set(extension.getDecompilerShards());
+        task.getDecompilerHeapSize().set(extension.getDecompilerHeapSize());
+        task.getMaxParallelism().set(project.getGradle().getStartParameter().getMaxWorkerCount());
+        task.getUseDecompilerDaemon().set(extension.getDecompilerDaemon());
+        task.getDecompilerDaemon().set(decompilerDaemon);
+        task.getDecompilerDaemonDirectory().set(extension.getCacheDirectory().dir(DECOMPILER_DAEMON_SUBDIR));
+        task.usesService(decompilerDaemon);
+        task.getDecompileCacheDirectory().set(extension.getCacheDirectory().dir(DECOMPILE_CACHE_SUBDIR));
+        task.getCacheLockFile().set(extension.getCacheDirectory().file(CACHE_LOCK_FILE));
+        task.getDecompileCacheMaxSize().set(extension.getDecompileCacheMaxSize());
+        task.getSourcesArtifact().set(this.artifactFile(
+          repoDir,
+          serverVersion,
+          "-" + SetupServerDependencyTask.SOURCES_CLASSIFIER + SetupServerDependencyTask.JAR_EXTENSION
+        ));
+        task.getPublishedFingerprintFile().set(
+          this.artifactFile(repoDir, serverVersion, DecompileSourcesTask.FINGERPRINT_SUFFIX)
+        );
+        task.getFingerprintFile().set(
+          project.getLayout().getBuildDirectory().file(DecompileSourcesTask.LOCAL_FINGERPRINT_FILE)
+        );
+      }
+    );
+    this.configureSourcesTriggers(project, decompileSources);
+
     RepositoryHandler repositories = project.getRepositories();
     repositories.maven(repo -> {
       repo.setName(HYTALE_REPO_NAME);
-      repo.setUrl(repoDir.toUri());
+      // Resolved lazily, the cache location may still change after the plugin is applied
+      repo.setUrl((Callable<URI>) () -> repoDir.get().getAsFile().toURI());
     });
 
     pluginManager.withPlugin(JAVA_PLUGIN_ID, appliedPlugin -> {
@@ -95,43 +298,428 @@ public class HytalePlugin implements Plugin<Project> {
 
       tasks.named(TASK_PROCESS_RESOURCES, ProcessResources.class, task -> task.dependsOn(generateManifest));
       tasks.named(TASK_COMPILE_JAVA, task -> task.dependsOn(setupServerDependency));
-      project.afterEvaluate(p -> this.configureServerDependency(p, versionCacheFilePath));
-    });
+      tasks.named(TASK_CHECK, task -> task.dependsOn(validatePlugins));
+
+      TaskProvider<CheckServerApiTask> checkApi = tasks.register(
+        TASK_CHECK_API,
+        CheckServerApiTask.class,
+        task -> {
+          task.setGroup(DEFAULT_GROUP);
+          task.setDescription("Checks the plugin main classes and server references against the server JAR");
+          task.getMetricsService().set(metricsService);
+          task.usesService(metricsService);
+          task.getClasses().from(mainSourceSet.getOutput().getClassesDirs());
+          task.getServerJar().set(this.artifactFile(repoDir, serverVersion, SetupServerDependencyTask.JAR_EXTENSION));
+          task.getServerFingerprint().set(setupServerDependency.flatMap(SetupServerDependencyTask::getFingerprintFile));
+          task.getMainClasses().set(project.provider(() -> mainClasses(extension.getPlugins())));
+          task.getPluginBaseClass().set(extension.getPluginBaseClass());
+          task.getJavaLauncher().set(project.getExtensions().getByType(JavaToolchainService.class).launcherFor(
+            project.getExtensions().getByType(JavaPluginExtension.class).getToolchain()
+          ));
+          task.getIndexFile().set(this.artifactFile(repoDir, serverVersion, ApiIndex.INDEX_EXTENSION));
+          task.getReportFile().set(project.getLayout().getBuildDirectory().file(CheckServerApiTask.REPORT_FILE));
+        }
+      );
+      tasks.named(TASK_CHECK, task -> task.dependsOn(checkApi));
+      // The configuration cache resolves the classpath before any task ran, so on a fresh cache the module is not
+      // published yet. There the JAR is added as a file built by setupServerDependency, while builds and IDE syncs
+      // without the configuration cache resolve the module, which brings the sources along.
+      if (this.getBuildFeatures().getConfigurationCache().getActive().get()) {
+        project.getDependencies().add(
+          CONFIGURATION_IMPLEMENTATION,
+          project.files(this.artifactFile(repoDir, serverVersion, SetupServerDependencyTask.JAR_EXTENSION))
+            .builtBy(setupServerDependency)
+        );
+      } else {
+        project.getDependencies().addProvider(
+          CONFIGURATION_IMPLEMENTATION,
+          serverVersion.map(version -> SetupServerDependencyTask.GROUP_ID
+                                       + ":"
+                                       + SetupServerDependencyTask.ARTIFACT_ID
+                                       + ":"
+                                       + version)
+        );
+      }
 
-    // Apply IDEA plugins to root project for run configuration support
-    Project rootProject = project.getRootProject();
-    rootProject.getPluginManager().apply(IdeaPlugin.class);
-    rootProject.getPluginManager().apply(IdeaExtPlugin.class);
+      // Resolved lazily, so the classes are only compiled first when referenced-only mode is enabled
+      decompileSources.configure(task -> task.getReferenceClasses().from((Callable<Object>) () ->
+        extension.getDecompile().getReferencedOnly().get() ? mainSourceSet.getOutput().getClassesDirs() : List.of()
+      ));
 
-    pluginManager.withPlugin(IDEA_PLUGIN_ID, appliedPlugin -> {
-      IdeaRunConfigurationSetup ideaSetup = new IdeaRunConfigurationSetup();
-      project.afterEvaluate(p -> ideaSetup.configure(p, extension));
+      this.configureServerRuns(project, extension, metricsService, mainSourceSet);
+      TaskProvider<BundlePluginJarTask> bundleJar = this.configureBundleJar(
+        project,
+        extension,
+        metricsService,
+        mainSourceSet
+      );
+      this.configureServerPack(project, extension, metricsService, serverJar, bundleJar);
     });
+
     project.getLogger().info("Plugin apply() completed for project: {}", project.getName());
   }
 
 
-  private void configureServerDependency(Project project, Path versionCacheFile) {
-    var logger = project.getLogger();
-    String version;
-    try {
-      version = SetupServerDependencyTask.readCachedVersion(versionCacheFile);
-    } catch (IOException e) {
-      version = null;
+  private void configureServerRuns(
+    Project project,
+    HytaleExtension extension,
+    Provider<HytaleMetricsService> metricsService,
+    SourceSet mainSourceSet
+  ) {
+    TaskContainer tasks = project.getTasks();
+    TaskProvider<GenerateDevAgentTask> generateDevAgent = tasks.register(
+      TASK_GENERATE_DEV_AGENT,
+      GenerateDevAgentTask.class,
+      task -> {
+        task.setGroup(DEFAULT_GROUP);
+        task.setDescription("Packs the hot reload agent used by runServer");
+        task.getAgentJar().set(project.getLayout().getBuildDirectory().file(GenerateDevAgentTask.AGENT_JAR));
+      }
+    );
+
+    // The JARs first, a class data sharing archive only covers them and the class directories are appended
+    FileCollection serverLibraries = project.files(
+      project.getConfigurations().named(mainSourceSet.getRuntimeClasspathConfigurationName())
+    ).filter(File::isFile);
+    FileCollection serverClasspath = project.files(serverLibraries, mainSourceSet.getOutput());
+    Provider<List<String>> serverArgs = project.provider(() -> ServerArguments.build(extension, mainSourceSet));
+    JavaToolchainSpec toolchain = project.getExtensions().getByType(JavaPluginExtension.class).getToolchain();
+    JavaToolchainService toolchains = project.getExtensions().getByType(JavaToolchainService.class);
+    Provider<JavaLauncher> launcher = toolchains.launcherFor(toolchain);
+    // The toolchain version without resolving the toolchain, the JVM running Gradle without one
+    Provider<Integer> javaVersion = toolchain.getLanguageVersion()
+      .map(JavaLanguageVersion::asInt)
+      .orElse(Integer.parseInt(JavaVersion.current().getMajorVersion()));
+    Provider<List<String>> tuningJvmArgs = project.provider(
+      () -> JvmArguments.build(extension.getJvm(), javaVersion.get())
+    );
+    Provider<RegularFile> cdsArchiveFile = project.getLayout().getBuildDirectory().file(launcher.map(
+      javaLauncher -> CdsArguments.archiveFile(javaLauncher.getMetadata().getLanguageVersion().asInt())
+    ));
+
+    TaskProvider<CreateCdsArchiveTask> cdsArchive = tasks.register(
+      TASK_CDS_ARCHIVE,
+      CreateCdsArchiveTask.class,
+      task -> {
+        task.setGroup(DEFAULT_GROUP);
+        task.setDescription("Creates a class data sharing archive of the server from a training run");
+        task.getMetricsService().set(metricsService);
+        task.usesService(metricsService);
+        task.getJavaLauncher().set(launcher);
+        task.getClasspath().from(serverLibraries);
+        // The server JAR is resolved from the local repository this task fills
+        task.dependsOn(TASK_SETUP_SERVER_DEPENDENCY);
+        task.getMainClass().set(extension.getRunConfigMainClass());
+        task.getProgramArguments().set(serverArgs);
+        task.getJvmArguments().set(tuningJvmArgs);
+        task.getWorkingDirectory().set(extension.getWorkingDirectory());
+        task.getTrainingDuration().set(extension.getCdsTrainingDuration());
+        task.getArchiveFile().set(cdsArchiveFile);
+      }
+    );
+    // Run by the IDE before each launch of its run configuration
+    TaskProvider<Task> prepareServer = tasks.register(TASK_PREPARE_SERVER, task -> {
+      task.setGroup(DEFAULT_GROUP);
+      task.setDescription("Creates the working directory of the Hytale server");
+      task.doLast(new CreateWorkingDirectory(extension.getWorkingDirectory()));
+    });
+
+    // The IDE puts the module output ahead of the JARs, so its runs could never use the archive
+    IdeaRunConfigurationSetup ideaSetup = new IdeaRunConfigurationSetup();
+    ideaSetup.configure(project, extension, mainSourceSet, prepareServer, tuningJvmArgs);
+
+    // Shared by all servers, so every server task uses the same agent JAR
+    DevAgentArgumentProvider devAgentArgs = new DevAgentArgumentProvider(
+      extension.getHotReload(),
+      generateDevAgent.flatMap(GenerateDevAgentTask::getAgentJar),
+      mainSourceSet.getOutput().getClassesDirs()
+    );
+    CdsArgumentProvider cdsArgs = new CdsArgumentProvider(extension.getCdsArchive(), cdsArchiveFile, launcher);
+    Provider<List<Object>> cdsDependency = extension.getCdsArchive()
+      .map(enabled -> enabled ? List.of(cdsArchive) : List.of());
+
+    tasks.register(TASK_RUN_SERVER, JavaExec.class, task -> {
+      task.setGroup(DEFAULT_GROUP);
+      task.setDescription("Runs the Hytale server with the plugin, reloading changed classes while it runs");
+      task.setClasspath(serverClasspath);
+      task.getMainClass().set(extension.getRunConfigMainClass());
+      task.getJavaLauncher().set(launcher);
+      task.setWorkingDir(extension.getWorkingDirectory());
+      task.doFirst(new CreateWorkingDirectory(extension.getWorkingDirectory()));
+      task.setStandardInput(System.in);
+      task.getArgumentProviders().add(new ServerArgumentProvider(serverArgs));
+      task.getJvmArgumentProviders().add(new ServerArgumentProvider(tuningJvmArgs));
+      task.getJvmArgumentProviders().add(devAgentArgs);
+      task.dependsOn(cdsDependency);
+      task.getJvmArgumentProviders().add(cdsArgs);
+    });
+
+    TaskProvider<RunServersTask> runServers = tasks.register(TASK_RUN_SERVERS, RunServersTask.class, task -> {
+      task.setGroup(DEFAULT_GROUP);
+      task.setDescription("Runs all configured server instances at the same time");
+      task.getJavaLauncher().set(launcher);
+      task.getClasspath().from(serverClasspath);
+      task.getMainClass().set(extension.getRunConfigMainClass());
+      task.getTemplateDirectory().set(extension.getWorkingDirectory());
+      task.getJvmArgumentProviders().add(devAgentArgs);
+    });
+
+    AtomicInteger instanceCount = new AtomicInteger();
+    extension.getServers().all(instance -> {
+      String name = instance.getName();
+      int portOffset = instanceCount.incrementAndGet();
+      instance.getPort().convention(extension.getBindPort().map(port -> port + portOffset));
+      instance.getWorkingDirectory().convention(
+        project.getLayout().getProjectDirectory().dir(HytaleExtension.DEFAULT_INSTANCES_DIR + "/" + name)
+      );
+      JvmSettings jvm = instance.getJvm();
+      jvm.getProfile().convention(extension.getJvm().getProfile());
+      jvm.getHeap().convention(extension.getJvm().getHeap());
+      jvm.getGc().convention(extension.getJvm().getGc());
+      jvm.getExtraArgs().convention(extension.getJvm().getExtraArgs());
+
+      Provider<List<String>> instanceArgs = project.provider(
+        () -> ServerArguments.build(extension, mainSourceSet, instance.getPort().get())
+      );
+      Provider<List<String>> instanceJvmArgs = project.provider(() -> JvmArguments.build(jvm, javaVersion.get()));
+      // The archive was trained with the flags of the main jvm block, the JVM rejects it under other flags
+      CdsArgumentProvider instanceCdsArgs = new CdsArgumentProvider(
+        extension.getCdsArchive().zip(instanceJvmArgs.zip(tuningJvmArgs, List::equals), Boolean::logicalAnd),
+        cdsArchiveFile,
+        launcher
+      );
+      Provider<List<Object>> instanceCdsDependency = instanceCdsArgs.getEnabled()
+        .map(enabled -> enabled ? List.of(cdsArchive) : List.of());
+      PrepareInstanceDirectory prepare = new PrepareInstanceDirectory(
+        extension.getWorkingDirectory(),
+        instance.getWorkingDirectory()
+      );
+
+      String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+      TaskProvider<Task> prepareInstance = tasks.register(TASK_PREPARE_SERVER + suffix, task -> {
+        task.setGroup(DEFAULT_GROUP);
+        task.setDescription("Creates the working directory of the server instance '" + name + "' on first use");
+        task.doLast(prepare);
+      });
+
+      tasks.register(TASK_RUN_SERVER + suffix, JavaExec.class, task -> {
+        task.setGroup(DEFAULT_GROUP);
+        task.setDescription("Runs the Hytale server instance '" + name + "'");
+        task.setClasspath(serverClasspath);
+        task.getMainClass().set(extension.getRunConfigMainClass());
+        task.getJavaLauncher().set(launcher);
+        task.setWorkingDir(instance.getWorkingDirectory());
+        task.doFirst(prepare);
+        task.setStandardInput(System.in);
+        task.getArgumentProviders().add(new ServerArgumentProvider(instanceArgs));
+        task.getJvmArgumentProviders().add(new ServerArgumentProvider(instanceJvmArgs));
+        task.getJvmArgumentProviders().add(devAgentArgs);
+        task.dependsOn(instanceCdsDependency);
+        task.getJvmArgumentProviders().add(instanceCdsArgs);
+      });
+
+      runServers.configure(task -> {
+        RunServersTask.Server server = project.getObjects().newInstance(RunServersTask.Server.class, name);
+        server.getWorkingDirectory().set(instance.getWorkingDirectory());
+        server.getJvmArguments().set(instanceJvmArgs);
+        server.getArguments().set(instanceArgs);
+        server.getJvmArgumentProviders().add(instanceCdsArgs);
+        task.dependsOn(instanceCdsDependency);
+        task.server(server);
+      });
+
+      ideaSetup.configureInstance(
+        project,
+        extension,
+        mainSourceSet,
+        instance,
+        prepareInstance,
+        instanceArgs,
+        instanceJvmArgs
+      );
+    });
+  }
+
+  private TaskProvider<BundlePluginJarTask> configureBundleJar(
+    Project project,
+    HytaleExtension extension,
+    Provider<HytaleMetricsService> metricsService,
+    SourceSet mainSourceSet
+  ) {
+    // Compiled against like implementation, but packed into the plugin JAR. The server JAR is provided at runtime.
+    Configuration shade = project.getConfigurations().create(CONFIGURATION_SHADE, configuration -> {
+      configuration.setDescription("Libraries bundled into the plugin JAR by " + TASK_BUNDLE_JAR);
+      configuration.setCanBeConsumed(false);
+      configuration.setCanBeResolved(false);
+    });
+    project.getConfigurations().named(CONFIGURATION_IMPLEMENTATION, configuration -> configuration.extendsFrom(shade));
+
+    // Requests the runtime variant like runtimeClasspath, project and module metadata dependencies offer several
+    ObjectFactory objects = project.getObjects();
+    Configuration shadeClasspath = project.getConfigurations().create(CONFIGURATION_SHADE_CLASSPATH, configuration -> {
+      configuration.setDescription("Runtime files of the shade libraries");
+      configuration.setCanBeConsumed(false);
+      configuration.extendsFrom(shade);
+      configuration.attributes(attributes -> {
+        attributes.attribute(Usage.USAGE_ATTRIBUTE, objects.named(Usage.class, Usage.JAVA_RUNTIME));
+        attributes.attribute(Category.CATEGORY_ATTRIBUTE, objects.named(Category.class, Category.LIBRARY));
+        attributes.attribute(
+          LibraryElements.LIBRARY_ELEMENTS_ATTRIBUTE,
+          objects.named(LibraryElements.class, LibraryElements.JAR)
+        );
+        attributes.attribute(Bundling.BUNDLING_ATTRIBUTE, objects.named(Bundling.class, Bundling.EXTERNAL));
+      });
+    });
+
+    Provider<String> version = project.provider(() -> String.valueOf(project.getVersion()));
+    Provider<String> archiveName = project.getExtensions().getByType(BasePluginExtension.class).getArchivesName()
+      .zip(version, (name, projectVersion) -> name + "-" + projectVersion + BUNDLE_JAR_SUFFIX);
+    BundleSettings bundle = extension.getBundle();
+
+    TaskProvider<BundlePluginJarTask> bundleJar = project.getTasks().register(
+      TASK_BUNDLE_JAR,
+      BundlePluginJarTask.class,
+      task -> {
+        task.setGroup(DEFAULT_GROUP);
+        task.setDescription("Builds the deployable plugin JAR with manifest, assets and shaded libraries");
+        task.getMetricsService().set(metricsService);
+        task.usesService(metricsService);
+        task.getContents().from(mainSourceSet.getOutput());
+        task.getLibraries().from(shadeClasspath);
+        task.getEntryPoints().set(project.provider(() -> mainClasses(extension.getPlugins())));
+        task.getShrink().set(bundle.getShrink());
+        task.getKeep().set(bundle.getKeep());
+        task.getCompressionLevel().set(bundle.getCompressionLevel());
+        task.getStoredExtensions().set(bundle.getStoredExtensions());
+        task.getArchiveFile().set(project.getLayout().getBuildDirectory().file(
+          archiveName.map(name -> BUNDLE_JAR_DIR + "/" + name)
+        ));
+      }
+    );
+    project.getTasks().named(TASK_ASSEMBLE, task -> task.dependsOn(bundleJar));
+
+    // Lets other projects consume the plugin JAR through a project dependency on hytaleMods
+    Configuration outgoing = project.getConfigurations().create(CONFIGURATION_HYTALE_PLUGIN, configuration -> {
+      configuration.setDescription("The plugin JAR built by " + TASK_BUNDLE_JAR);
+      configuration.setCanBeResolved(false);
+      configuration.attributes(attributes -> attributes.attribute(Usage.USAGE_ATTRIBUTE, hytalePluginUsage(project)));
+    });
+    outgoing.getOutgoing().artifact(bundleJar.flatMap(BundlePluginJarTask::getArchiveFile));
+    return bundleJar;
+  }
+
+  private void configureServerPack(
+    Project project,
+    HytaleExtension extension,
+    Provider<HytaleMetricsService> metricsService,
+    Provider<RegularFile> serverJar,
+    TaskProvider<BundlePluginJarTask> bundleJar
+  ) {
+    // Plugin JARs of other projects, without reaching into their tasks
+    Configuration mods = project.getConfigurations().create(CONFIGURATION_HYTALE_MODS, configuration -> {
+      configuration.setDescription("Plugins of other projects or files placed next to this plugin in the server pack");
+      configuration.setCanBeConsumed(false);
+      configuration.setTransitive(false);
+      configuration.attributes(attributes -> attributes.attribute(Usage.USAGE_ATTRIBUTE, hytalePluginUsage(project)));
+    });
+
+    TaskContainer tasks = project.getTasks();
+    TaskProvider<StageServerPackTask> serverPack = tasks.register(
+      TASK_SERVER_PACK,
+      StageServerPackTask.class,
+      task -> {
+        task.setGroup(DEFAULT_GROUP);
+        task.setDescription("Stages the server JAR, assets, plugin JARs and configs for production");
+        task.getMetricsService().set(metricsService);
+        task.usesService(metricsService);
+        task.getServerJar().set(serverJar);
+        task.getAssets().set(extension.getInstallationPath().file(ServerArguments.ASSETS_FILE));
+        task.getMods().from(bundleJar.flatMap(BundlePluginJarTask::getArchiveFile));
+        task.getMods().from(extension.getServerPack().getMods());
+        task.getMods().from(mods);
+        task.getConfigs().from(extension.getServerPack().getConfigs());
+        task.getPublicationStrategy().set(extension.getPublicationStrategy());
+        task.getMaxParallelism().set(project.getGradle().getStartParameter().getMaxWorkerCount());
+        task.getPackDirectory().set(project.getLayout().getBuildDirectory().dir(SERVER_PACK_DIR));
+      }
+    );
+
+    tasks.named(TASK_VALIDATE_PLUGINS, ValidatePluginsTask.class, task -> task.getModJars().from(mods));
+
+    // Archived by Gradle itself, without timestamps and in a stable order so equal packs give equal archives
+    tasks.register(TASK_SERVER_PACK_ZIP, Zip.class, task -> {
+      task.setGroup(DEFAULT_GROUP);
+      task.setDescription("Archives the server pack as ZIP");
+      task.getArchiveClassifier().set(SERVER_PACK_CLASSIFIER);
+      task.from(serverPack);
+      task.setPreserveFileTimestamps(false);
+      task.setReproducibleFileOrder(true);
+      // The server JAR and the assets exceed the size limits of plain ZIP files
+      task.setZip64(true);
+    });
+    tasks.register(TASK_SERVER_PACK_TAR, Tar.class, task -> {
+      task.setGroup(DEFAULT_GROUP);
+      task.setDescription("Archives the server pack as gzip compressed TAR");
+      task.getArchiveClassifier().set(SERVER_PACK_CLASSIFIER);
+      task.from(serverPack);
+      task.setCompression(Compression.GZIP);
+      task.setPreserveFileTimestamps(false);
+      task.setReproducibleFileOrder(true);
+    });
+  }
+
+  private static Usage hytalePluginUsage(Project project) {
+    return project.getObjects().named(Usage.class, USAGE_HYTALE_PLUGIN);
+  }
+
+  private static List<String> mainClasses(Iterable<PluginManifest> plugins) {
+    List<String> mainClasses = new ArrayList<>();
+    for (PluginManifest plugin : plugins) {
+      if (plugin.getMain().isPresent()) {
+        mainClasses.add(plugin.getMain().get());
+      }
+      mainClasses.addAll(mainClasses(plugin.getSubPlugins()));
     }
+    return mainClasses;
+  }
 
-    if (version == null) {
-      logger.info("Server version not cached yet, dependency will be resolved after setupServerDependency task runs");
-      version = VERSION_FALLBACK;
+  private void configureSourcesTriggers(Project project, TaskProvider<DecompileSourcesTask> decompileSources) {
+    project.getTasks().named(TASK_IDEA, task -> task.dependsOn(decompileSources));
+
+    // The sync triggers live in the IdeaModel of the root project, see IdeaRunConfigurationSetup
+    if (!project.getPath().equals(Project.PATH_SEPARATOR)) {
+      return;
     }
 
-    String dependencyNotation = SetupServerDependencyTask.GROUP_ID
-                                + ":"
-                                + SetupServerDependencyTask.ARTIFACT_ID
-                                + ":"
-                                + version;
+    IdeaModel ideaModel = project.getExtensions().findByType(IdeaModel.class);
+    if (ideaModel == null || ideaModel.getProject() == null) {
+      project.getLogger().warn("IdeaModel is not available, server sources are not decompiled on IDE sync");
+      return;
+    }
 
-    project.getDependencies().add(CONFIGURATION_IMPLEMENTATION, dependencyNotation);
-    logger.lifecycle("Added server dependency: {}", dependencyNotation);
+    ProjectSettings projectSettings = Util.getExtension(ideaModel.getProject(), ProjectSettings.class);
+    Util.getExtension(projectSettings, TaskTriggersConfig.class).afterSync(decompileSources);
+  }
+
+  private Provider<RegularFile> artifactFile(
+    Provider<Directory> repoDir,
+    Provider<String> serverVersion,
+    String suffix
+  ) {
+    return repoDir.zip(serverVersion, (dir, version) -> dir.file(SetupServerDependencyTask.artifactPath(version, suffix)));
+  }
+
+  private void configureCacheDirectory(Project project, HytaleExtension extension, Path localCacheDir) {
+    ProviderFactory providers = project.getProviders();
+    File sharedCacheDir = new File(project.getGradle().getGradleUserHomeDir(), SHARED_CACHE_DIR);
+
+    extension.getSharedCache().convention(
+      providers.gradleProperty(PROPERTY_SHARED_CACHE).map(Boolean::parseBoolean).orElse(false)
+    );
+    extension.getCacheDirectory().convention(project.getLayout().dir(
+      providers.gradleProperty(PROPERTY_CACHE_DIR)
+        .map(File::new)
+        .orElse(extension.getSharedCache().map(shared -> shared ? sharedCacheDir : localCacheDir.toFile()))
+    ));
   }
 }
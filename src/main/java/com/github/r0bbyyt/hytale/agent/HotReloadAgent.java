@@ -0,0 +1,132 @@
+package com.github.r0bbyyt.hytale.agent;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.instrument.ClassDefinition;
+import java.lang.instrument.Instrumentation;
+import java.lang.instrument.UnmodifiableClassException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+// Java agent of the runServer task, watches the compiled plugin classes and redefines the loaded ones that changed.
+// Loaded into the server JVM on its own, so it must not reference anything but the JDK.
+public final class HotReloadAgent implements Runnable {
+
+  public static final String CLASS_EXTENSION = ".class";
+  private static final String PREFIX = "[hot-reload] ";
+  private static final long POLL_INTERVAL_MILLIS = 500;
+
+  private final Instrumentation instrumentation;
+  private final List<Path> directories;
+  private final Map<Path, String> stamps = new HashMap<>();
+
+  private HotReloadAgent(Instrumentation instrumentation, List<Path> directories) {
+    this.instrumentation = instrumentation;
+    this.directories = directories;
+  }
+
+  // Arguments: the class directories, separated by the platform path separator
+  public static void premain(String args, Instrumentation instrumentation) {
+    List<Path> directories = new ArrayList<>();
+    for (String directory : String.valueOf(args).split(File.pathSeparator)) {
+      if (!directory.isBlank()) {
+        directories.add(Path.of(directory));
+      }
+    }
+
+    HotReloadAgent agent = new HotReloadAgent(instrumentation, directories);
+    agent.scan();
+    Thread thread = new Thread(agent, "hytale-hot-reload");
+    thread.setDaemon(true);
+    thread.start();
+    System.out.println(PREFIX + "Watching " + directories);
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (true) {
+        Thread.sleep(POLL_INTERVAL_MILLIS);
+        Map<String, Path> changed = this.scan();
+        if (changed.isEmpty()) {
+          continue;
+        }
+
+        // The compiler may still be writing, wait until a scan finds nothing new
+        Map<String, Path> more;
+        do {
+          Thread.sleep(POLL_INTERVAL_MILLIS);
+          more = this.scan();
+          changed.putAll(more);
+        } while (!more.isEmpty());
+        this.redefine(changed);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // Class names of the class files that were added or modified since the last scan
+  private Map<String, Path> scan() {
+    Map<String, Path> changed = new TreeMap<>();
+    for (Path directory : this.directories) {
+      if (!Files.isDirectory(directory)) {
+        continue;
+      }
+
+      try (Stream<Path> files = Files.walk(directory)) {
+        for (Path file : (Iterable<Path>) files::iterator) {
+          String name = file.getFileName().toString();
+          if (!name.endsWith(CLASS_EXTENSION) || !Files.isRegularFile(file)) {
+            continue;
+          }
+
+          String stamp = Files.getLastModifiedTime(file).toMillis() + ":" + Files.size(file);
+          if (!stamp.equals(this.stamps.put(file, stamp))) {
+            String relative = directory.relativize(file).toString().replace(File.separatorChar, '.');
+            changed.put(relative.substring(0, relative.length() - CLASS_EXTENSION.length()), file);
+          }
+        }
+      } catch (IOException | UncheckedIOException e) {
+        // Files disappear while the compiler rewrites the directory, the next scan sees the result
+      }
+    }
+    return changed;
+  }
+
+  // Only classes that are already loaded need redefinition, new ones are loaded from the directory when used
+  private void redefine(Map<String, Path> changed) {
+    List<ClassDefinition> definitions = new ArrayList<>();
+    try {
+      for (Class<?> type : this.instrumentation.getAllLoadedClasses()) {
+        Path file = changed.get(type.getName());
+        if (file != null && this.instrumentation.isModifiableClass(type)) {
+          definitions.add(new ClassDefinition(type, Files.readAllBytes(file)));
+        }
+      }
+    } catch (IOException e) {
+      System.out.println(PREFIX + "Failed to read the changed classes: " + e);
+      return;
+    }
+
+    if (definitions.isEmpty()) {
+      System.out.println(PREFIX + changed.size() + " changed class(es), none loaded yet");
+      return;
+    }
+
+    try {
+      this.instrumentation.redefineClasses(definitions.toArray(ClassDefinition[]::new));
+      System.out.println(PREFIX + "Reloaded " + definitions.size() + " of " + changed.size() + " changed class(es)");
+    } catch (ClassNotFoundException | UnmodifiableClassException | UnsupportedOperationException | LinkageError e) {
+      // Redefinition only supports changed method bodies, anything else needs a restart
+      System.out.println(PREFIX + "Changes cannot be reloaded, restart the server: " + e);
+    }
+  }
+}
@@ -0,0 +1,278 @@
+package com.github.r0bbyyt.hytale.api;
+
+import com.github.r0bbyyt.hytale.decompile.Decompiler;
+import com.github.r0bbyyt.hytale.decompile.ReferenceScanner;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+// Verifies compiled plugin classes against the API index of the server: every referenced server class, method
+// and field must exist, and every manifest main class must extend the plugin base class
+public final class ApiChecker {
+
+  public static final String SERVER_PACKAGE = "com/hypixel/";
+
+  private static final String OBJECT = "java/lang/Object";
+  private static final List<String> PLATFORM_PACKAGES = List.of("java/", "javax/");
+  private static final int READER_FLAGS = ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+  private static final URI RUNTIME_IMAGE = URI.create("jrt:/");
+
+  private final ApiIndex index;
+  private final FileSystem runtimeImage;
+  private final Map<String, ApiIndex.ClassSymbols> pluginClasses = new HashMap<>();
+  private final Map<String, Optional<ApiIndex.ClassSymbols>> platformClasses = new HashMap<>();
+  private final Set<String> problems = new TreeSet<>();
+
+  private ApiChecker(ApiIndex index, FileSystem runtimeImage) {
+    this.index = index;
+    this.runtimeImage = runtimeImage;
+  }
+
+  // Problems sorted by the class they were found in, empty when everything resolves. JDK classes come from the
+  // runtime image of javaHome, the JDK the plugin runs on, not from the JVM running the build.
+  public static List<String> check(
+    ApiIndex index,
+    Iterable<File> classDirectories,
+    List<String> mainClasses,
+    String baseClass,
+    Path javaHome
+  ) throws IOException {
+    try (FileSystem runtimeImage = FileSystems.newFileSystem(RUNTIME_IMAGE, Map.of("java.home", javaHome.toString()))) {
+      ApiChecker checker = new ApiChecker(index, runtimeImage);
+      Map<String, byte[]> classes = readClasses(classDirectories);
+      for (byte[] bytes : classes.values()) {
+        ApiIndex.ClassSymbols symbols = ApiIndex.ClassSymbols.read(bytes);
+        if (symbols != null) {
+          checker.pluginClasses.put(symbols.name(), symbols);
+        }
+      }
+
+      for (byte[] bytes : classes.values()) {
+        checker.checkReferences(bytes);
+      }
+      checker.checkMainClasses(mainClasses, baseClass.replace('.', '/'));
+      return new ArrayList<>(checker.problems);
+    }
+  }
+
+  private static Map<String, byte[]> readClasses(Iterable<File> classDirectories) throws IOException {
+    Map<String, byte[]> classes = new HashMap<>();
+    for (File directory : classDirectories) {
+      if (!directory.isDirectory()) {
+        continue;
+      }
+
+      try (Stream<Path> files = Files.walk(directory.toPath())) {
+        for (Path file : (Iterable<Path>) files::iterator) {
+          if (Decompiler.isClass(file.toString()) && Files.isRegularFile(file)) {
+            classes.put(file.toString(), Files.readAllBytes(file));
+          }
+        }
+      }
+    }
+    return classes;
+  }
+
+  private void checkReferences(byte[] bytes) throws IOException {
+    ClassReader reader = new ClassReader(bytes);
+    String className = reader.getClassName();
+    if ((reader.getAccess() & Opcodes.ACC_MODULE) != 0) {
+      return;
+    }
+
+    for (String reference : ReferenceScanner.scanClass(bytes)) {
+      if (reference.startsWith(SERVER_PACKAGE) && this.lookup(reference) == null) {
+        this.problems.add(display(className) + " references missing class " + display(reference));
+      }
+    }
+
+    reader.accept(new ClassVisitor(Opcodes.ASM9) {
+      @Override
+      public MethodVisitor visitMethod(
+        int access,
+        String name,
+        String descriptor,
+        String signature,
+        String[] exceptions
+      ) {
+        return new MethodVisitor(Opcodes.ASM9) {
+          @Override
+          public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+            ApiChecker.this.checkMember(className, owner, name, descriptor, true);
+          }
+
+          @Override
+          public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+            ApiChecker.this.checkMember(className, owner, name, descriptor, false);
+          }
+
+          @Override
+          public void visitLdcInsn(Object value) {
+            ApiChecker.this.checkConstant(className, value);
+          }
+
+          @Override
+          public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrap, Object... arguments) {
+            ApiChecker.this.checkConstant(className, bootstrap);
+            for (Object argument : arguments) {
+              ApiChecker.this.checkConstant(className, argument);
+            }
+          }
+        };
+      }
+    }, READER_FLAGS);
+  }
+
+  // Method handles of lambdas and method references point at members like direct calls do
+  private void checkConstant(String className, Object value) {
+    if (value instanceof Handle handle) {
+      boolean method = handle.getTag() > Opcodes.H_PUTSTATIC;
+      this.checkMember(className, handle.getOwner(), handle.getName(), handle.getDesc(), method);
+    }
+  }
+
+  // Owners of the server and of the plugin, whose inherited members may come from the server
+  private void checkMember(String className, String owner, String name, String descriptor, boolean method) {
+    if (!owner.startsWith(SERVER_PACKAGE) && !this.pluginClasses.containsKey(owner)) {
+      return;
+    }
+    if (this.lookup(owner) == null) {
+      // Reported as missing class already
+      return;
+    }
+
+    String key = method
+      ? ApiIndex.ClassSymbols.methodKey(name, descriptor)
+      : ApiIndex.ClassSymbols.fieldKey(name, descriptor);
+    if (!this.resolves(owner, key, method)) {
+      String member = method ? name + descriptor : name + " " + descriptor;
+      this.problems.add(
+        display(className) + " references missing " + (method ? "method " : "field ") + display(owner) + "." + member
+      );
+    }
+  }
+
+  // Searches the supertypes like the JVM does. A supertype outside the plugin and the server index may declare
+  // anything, so the member counts as present.
+  private boolean resolves(String owner, String key, boolean method) {
+    Deque<String> pending = new ArrayDeque<>(List.of(owner));
+    Set<String> seen = new HashSet<>();
+    while (!pending.isEmpty()) {
+      String name = pending.poll();
+      if (!seen.add(name)) {
+        continue;
+      }
+
+      ApiIndex.ClassSymbols symbols = this.lookup(name);
+      if (symbols == null) {
+        return !name.startsWith(SERVER_PACKAGE);
+      }
+      if ((method ? symbols.methods() : symbols.fields()).contains(key)) {
+        return true;
+      }
+      if (symbols.superName() != null) {
+        pending.add(symbols.superName());
+      }
+      pending.addAll(symbols.interfaces());
+    }
+
+    // Interfaces inherit the public methods of Object without naming it as supertype
+    ApiIndex.ClassSymbols object = this.lookup(OBJECT);
+    return method && object != null && object.methods().contains(key);
+  }
+
+  private void checkMainClasses(List<String> mainClasses, String baseClass) {
+    if (this.lookup(baseClass) == null) {
+      this.problems.add("The plugin base class " + display(baseClass) + " does not exist in the server");
+      return;
+    }
+
+    for (String mainClass : mainClasses) {
+      String name = mainClass.replace('.', '/');
+      ApiIndex.ClassSymbols symbols = this.pluginClasses.get(name);
+      if (symbols == null) {
+        this.problems.add("Main class " + mainClass + " does not exist in the compiled plugin classes");
+        continue;
+      }
+      if ((symbols.access() & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_INTERFACE)) != 0) {
+        this.problems.add("Main class " + mainClass + " is abstract and cannot be instantiated");
+      }
+      if (!this.extendsClass(symbols, baseClass)) {
+        this.problems.add("Main class " + mainClass + " does not extend " + display(baseClass));
+      }
+    }
+  }
+
+  private boolean extendsClass(ApiIndex.ClassSymbols symbols, String baseClass) {
+    ApiIndex.ClassSymbols current = symbols;
+    while (current != null && current.superName() != null) {
+      if (current.superName().equals(baseClass)) {
+        return true;
+      }
+      current = this.lookup(current.superName());
+    }
+    return false;
+  }
+
+  private ApiIndex.ClassSymbols lookup(String name) {
+    ApiIndex.ClassSymbols symbols = this.pluginClasses.get(name);
+    if (symbols == null) {
+      symbols = this.index.get(name);
+    }
+    if (symbols == null && this.isPlatform(name)) {
+      symbols = this.platformClasses.computeIfAbsent(name, this::readPlatformClass).orElse(null);
+    }
+    return symbols;
+  }
+
+  private boolean isPlatform(String name) {
+    return PLATFORM_PACKAGES.stream().anyMatch(name::startsWith);
+  }
+
+  // Looked up through the package index of the runtime image, which names the modules containing a package
+  private Optional<ApiIndex.ClassSymbols> readPlatformClass(String name) {
+    String packageName = name.substring(0, name.lastIndexOf('/')).replace('/', '.');
+    Path modules = this.runtimeImage.getPath("packages", packageName);
+    if (!Files.isDirectory(modules)) {
+      return Optional.empty();
+    }
+
+    try (Stream<Path> paths = Files.list(modules)) {
+      for (Path module : (Iterable<Path>) paths::iterator) {
+        Path file = module.resolve(name + Decompiler.CLASS_EXTENSION);
+        if (Files.exists(file)) {
+          return Optional.ofNullable(ApiIndex.ClassSymbols.read(Files.readAllBytes(file)));
+        }
+      }
+      return Optional.empty();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read the JDK class " + name, e);
+    }
+  }
+
+  private static String display(String internalName) {
+    return internalName.replace('/', '.');
+  }
+}
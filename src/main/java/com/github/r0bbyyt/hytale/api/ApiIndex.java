@@ -0,0 +1,208 @@
+package com.github.r0bbyyt.hytale.api;
+
+import com.github.r0bbyyt.hytale.bundle.ClassShrinker;
+import com.github.r0bbyyt.hytale.decompile.Decompiler;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Classes of a JAR with their supertypes and declared members, without any bytecode. Written next to the server
+// artifact together with the SHA-256 of the JAR, so every server JAR is only indexed once and a JAR replaced under
+// the same version is indexed again.
+public final class ApiIndex {
+
+  public static final String INDEX_EXTENSION = ".api";
+
+  private static final int MAGIC = 0x48415049;
+  // Bumped whenever the layout changes, older files are rebuilt
+  private static final int FORMAT = 2;
+  private static final int READER_FLAGS = ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+
+  private final String jarHash;
+  private final Map<String, ClassSymbols> classes;
+
+  private ApiIndex(String jarHash, Map<String, ClassSymbols> classes) {
+    this.jarHash = jarHash;
+    this.classes = classes;
+  }
+
+  public static ApiIndex build(Path jar, String jarHash) throws IOException {
+    Map<String, ClassSymbols> classes = new HashMap<>();
+    try (ZipFile zip = new ZipFile(jar.toFile())) {
+      for (ZipEntry entry : Collections.list(zip.entries())) {
+        String name = entry.getName();
+        // Release specific variants keep the API of the class they replace
+        if (!Decompiler.isClass(name) || name.startsWith(ClassShrinker.VERSIONS_PREFIX)) {
+          continue;
+        }
+
+        try (InputStream in = zip.getInputStream(entry)) {
+          ClassSymbols symbols = ClassSymbols.read(in.readAllBytes());
+          if (symbols != null) {
+            classes.put(symbols.name(), symbols);
+          }
+        }
+      }
+    }
+    return new ApiIndex(jarHash, classes);
+  }
+
+  // Null when the file is missing, was written in another format or for another JAR
+  public static ApiIndex read(Path file, String jarHash) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT || !in.readUTF().equals(jarHash)) {
+        return null;
+      }
+
+      int count = in.readInt();
+      Map<String, ClassSymbols> classes = new HashMap<>(count * 2);
+      for (int i = 0; i < count; i++) {
+        String name = in.readUTF();
+        String superName = in.readUTF();
+        int access = in.readInt();
+        ClassSymbols symbols = new ClassSymbols(
+          name,
+          superName.isEmpty() ? null : superName,
+          readStrings(in),
+          access,
+          new HashSet<>(readStrings(in)),
+          new HashSet<>(readStrings(in))
+        );
+        classes.put(name, symbols);
+      }
+      return new ApiIndex(jarHash, classes);
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+  }
+
+  // Written next to the target and moved into place, so concurrent builds never read partial files
+  public void write(Path file) throws IOException {
+    Files.createDirectories(file.getParent());
+    Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT);
+        out.writeUTF(this.jarHash);
+        out.writeInt(this.classes.size());
+        for (ClassSymbols symbols : new TreeMap<>(this.classes).values()) {
+          out.writeUTF(symbols.name());
+          out.writeUTF(symbols.superName() == null ? "" : symbols.superName());
+          out.writeInt(symbols.access());
+          writeStrings(out, symbols.interfaces());
+          writeStrings(out, symbols.methods().stream().sorted().toList());
+          writeStrings(out, symbols.fields().stream().sorted().toList());
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  public ClassSymbols get(String name) {
+    return this.classes.get(name);
+  }
+
+  public int size() {
+    return this.classes.size();
+  }
+
+  private static List<String> readStrings(DataInputStream in) throws IOException {
+    String[] values = new String[in.readInt()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = in.readUTF();
+    }
+    return Arrays.asList(values);
+  }
+
+  private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+    out.writeInt(values.size());
+    for (String value : values) {
+      out.writeUTF(value);
+    }
+  }
+
+  // Methods are keyed by name and descriptor like run(I)V, fields by name and descriptor like count:I
+  public record ClassSymbols(
+    String name,
+    String superName,
+    List<String> interfaces,
+    int access,
+    Set<String> methods,
+    Set<String> fields
+  ) {
+
+    public static String methodKey(String name, String descriptor) {
+      return name + descriptor;
+    }
+
+    public static String fieldKey(String name, String descriptor) {
+      return name + ":" + descriptor;
+    }
+
+    // Null for module descriptors, which declare no class
+    public static ClassSymbols read(byte[] bytes) {
+      ClassReader reader = new ClassReader(bytes);
+      if ((reader.getAccess() & Opcodes.ACC_MODULE) != 0) {
+        return null;
+      }
+
+      Set<String> methods = new HashSet<>();
+      Set<String> fields = new HashSet<>();
+      reader.accept(new ClassVisitor(Opcodes.ASM9) {
+        @Override
+        public MethodVisitor visitMethod(
+          int access,
+          String name,
+          String descriptor,
+          String signature,
+          String[] exceptions
+        ) {
+          methods.add(methodKey(name, descriptor));
+          return null;
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+          fields.add(fieldKey(name, descriptor));
+          return null;
+        }
+      }, READER_FLAGS);
+
+      return new ClassSymbols(
+        reader.getClassName(),
+        reader.getSuperName(),
+        new ArrayList<>(Arrays.asList(reader.getInterfaces())),
+        reader.getAccess(),
+        methods,
+        fields
+      );
+    }
+  }
+}
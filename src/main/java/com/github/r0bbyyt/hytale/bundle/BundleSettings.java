@@ -0,0 +1,39 @@
+package com.github.r0bbyyt.hytale.bundle;
+
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.SetProperty;
+
+import java.util.List;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+// How hytaleJar packs the plugin, its assets and the libraries of the shade configuration
+public abstract class BundleSettings {
+
+  // Formats that are compressed already, deflating them again costs time and saves nothing
+  public static final Set<String> DEFAULT_STORED_EXTENSIONS = Set.of("png", "jpg", "jpeg", "ogg", "zip", "jar", "gz");
+
+  public BundleSettings() {
+    this.getShrink().convention(true);
+    this.getKeep().convention(List.of());
+    this.getCompressionLevel().convention(Deflater.BEST_COMPRESSION);
+    this.getStoredExtensions().convention(DEFAULT_STORED_EXTENSIONS);
+  }
+
+  // Drops the shaded classes that cannot be reached from the plugin classes and the manifest main classes
+  public abstract Property<Boolean> getShrink();
+
+  // Globs over class names like com.example.** for shaded classes only loaded by reflection
+  public abstract ListProperty<String> getKeep();
+
+  // Deflate level from 0 to 9 for all entries that are not stored
+  public abstract Property<Integer> getCompressionLevel();
+
+  // File extensions written without compression
+  public abstract SetProperty<String> getStoredExtensions();
+
+  public void keep(String... patterns) {
+    this.getKeep().addAll(patterns);
+  }
+}
@@ -0,0 +1,72 @@
+package com.github.r0bbyyt.hytale.bundle;
+
+import com.github.r0bbyyt.hytale.decompile.Decompiler;
+import com.github.r0bbyyt.hytale.decompile.ReferenceScanner;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Class level reachability over constant pool references. Members are not removed, a class is either kept whole
+// or dropped, which keeps the bytecode of the libraries untouched.
+public final class ClassShrinker {
+
+  public static final String VERSIONS_PREFIX = "META-INF/versions/";
+
+  private ClassShrinker() {
+  }
+
+  // Internal names of all classes reachable from the roots, entries maps entry names to their bytes
+  public static Set<String> reachable(Map<String, byte[]> entries, Collection<String> roots) throws IOException {
+    Map<String, Collection<String>> classEntries = new HashMap<>();
+    for (String entry : entries.keySet()) {
+      String className = className(entry);
+      if (className != null) {
+        classEntries.computeIfAbsent(className, ignored -> new ArrayList<>()).add(entry);
+      }
+    }
+
+    Set<String> reachable = new HashSet<>();
+    Deque<String> queue = new ArrayDeque<>(roots);
+    while (!queue.isEmpty()) {
+      String className = queue.poll();
+      Collection<String> classFiles = classEntries.get(className);
+      if (classFiles == null || !reachable.add(className)) {
+        continue;
+      }
+
+      // Every release specific variant may reference other classes
+      for (String entry : classFiles) {
+        for (String reference : ReferenceScanner.scanClass(entries.get(entry))) {
+          if (!reachable.contains(reference)) {
+            queue.add(reference);
+          }
+        }
+      }
+    }
+    return reachable;
+  }
+
+  // Internal class name of a class entry, multi-release variants map to the class they replace
+  public static String className(String entry) {
+    if (!Decompiler.isClass(entry)) {
+      return null;
+    }
+
+    String path = entry;
+    if (path.startsWith(VERSIONS_PREFIX)) {
+      int separator = path.indexOf('/', VERSIONS_PREFIX.length());
+      if (separator < 0) {
+        return null;
+      }
+      path = path.substring(separator + 1);
+    }
+    return path.substring(0, path.length() - Decompiler.CLASS_EXTENSION.length());
+  }
+}
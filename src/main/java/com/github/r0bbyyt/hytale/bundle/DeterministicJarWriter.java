@@ -0,0 +1,87 @@
+package com.github.r0bbyyt.hytale.bundle;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Writes the same bytes for the same entries: sorted names, a fixed timestamp and no platform specific extras
+public final class DeterministicJarWriter {
+
+  // The timestamp Gradle uses for reproducible archives
+  public static final LocalDateTime ENTRY_TIME = LocalDateTime.of(1980, 2, 1, 0, 0);
+
+  private DeterministicJarWriter() {
+  }
+
+  // The manifest entry is written first, JarInputStream only finds it there
+  public static long write(
+    Path jar,
+    SortedMap<String, byte[]> entries,
+    int compressionLevel,
+    Set<String> storedExtensions
+  ) throws IOException {
+    SortedMap<String, byte[]> ordered = new TreeMap<>(entries);
+    byte[] manifest = ordered.remove(JarFile.MANIFEST_NAME);
+
+    Set<String> directories = new TreeSet<>();
+    for (String name : entries.keySet()) {
+      for (int i = name.indexOf('/'); i >= 0; i = name.indexOf('/', i + 1)) {
+        directories.add(name.substring(0, i + 1));
+      }
+    }
+
+    Files.createDirectories(jar.toAbsolutePath().getParent());
+    try (OutputStream out = Files.newOutputStream(jar); ZipOutputStream zip = new ZipOutputStream(out)) {
+      zip.setLevel(compressionLevel);
+      if (manifest != null) {
+        directories.remove("META-INF/");
+        putDirectory(zip, "META-INF/");
+        putEntry(zip, JarFile.MANIFEST_NAME, manifest, false);
+      }
+      for (String directory : directories) {
+        putDirectory(zip, directory);
+      }
+      for (Map.Entry<String, byte[]> entry : ordered.entrySet()) {
+        putEntry(zip, entry.getKey(), entry.getValue(), isStored(entry.getKey(), storedExtensions));
+      }
+    }
+    return Files.size(jar);
+  }
+
+  private static boolean isStored(String name, Set<String> storedExtensions) {
+    int separator = name.lastIndexOf('.');
+    return separator > name.lastIndexOf('/') && storedExtensions.contains(name.substring(separator + 1).toLowerCase());
+  }
+
+  private static void putDirectory(ZipOutputStream zip, String name) throws IOException {
+    putEntry(zip, name, new byte[0], true);
+  }
+
+  private static void putEntry(ZipOutputStream zip, String name, byte[] bytes, boolean stored) throws IOException {
+    ZipEntry entry = new ZipEntry(name);
+    entry.setTimeLocal(ENTRY_TIME);
+    if (stored) {
+      // Stored entries carry their size and checksum up front
+      CRC32 crc = new CRC32();
+      crc.update(bytes);
+      entry.setMethod(ZipEntry.STORED);
+      entry.setSize(bytes.length);
+      entry.setCompressedSize(bytes.length);
+      entry.setCrc(crc.getValue());
+    }
+    zip.putNextEntry(entry);
+    zip.write(bytes);
+    zip.closeEntry();
+  }
+}
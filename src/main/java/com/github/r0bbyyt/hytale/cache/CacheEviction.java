@@ -0,0 +1,102 @@
+package com.github.r0bbyyt.hytale.cache;
+
+import com.github.r0bbyyt.hytale.util.Util;
+import org.gradle.api.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Least-recently-used eviction, callers must hold the CacheLock of the cache
+public final class CacheEviction {
+
+  private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+
+  private final Logger logger;
+
+  public CacheEviction(Logger logger) {
+    this.logger = logger;
+  }
+
+  public void evictVersions(Path artifactRoot, String currentVersion, String markerSuffix, int retained)
+    throws IOException {
+    if (!Files.isDirectory(artifactRoot)) {
+      return;
+    }
+
+    List<Path> versions;
+    try (Stream<Path> stream = Files.list(artifactRoot)) {
+      versions = new ArrayList<>(stream
+        .filter(Files::isDirectory)
+        .filter(dir -> !dir.getFileName().toString().equals(currentVersion))
+        .toList());
+    }
+
+    // The current version always stays, so it counts against the retained slots
+    int keep = Math.max(0, retained - 1);
+    if (versions.size() <= keep) {
+      return;
+    }
+
+    versions.sort(Comparator.comparing((Path dir) -> this.lastUsed(dir, markerSuffix)).reversed());
+    for (Path version : versions.subList(keep, versions.size())) {
+      this.logger.lifecycle("Evicting unused server version {} from {}", version.getFileName(), artifactRoot);
+      Util.deleteDirectory(version);
+    }
+  }
+
+  public void evictSources(Path cacheRoot, long maxSizeMegabytes) throws IOException {
+    if (!Files.isDirectory(cacheRoot)) {
+      return;
+    }
+
+    List<CachedFile> files = new ArrayList<>();
+    Files.walkFileTree(cacheRoot, new SimpleFileVisitor<>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        files.add(new CachedFile(file, attrs.size(), attrs.lastModifiedTime()));
+        return FileVisitResult.CONTINUE;
+      }
+    });
+
+    long maxBytes = maxSizeMegabytes * BYTES_PER_MEGABYTE;
+    long totalBytes = files.stream().mapToLong(CachedFile::size).sum();
+    if (totalBytes <= maxBytes) {
+      return;
+    }
+
+    files.sort(Comparator.comparing(CachedFile::lastUsed));
+    int evicted = 0;
+    for (CachedFile file : files) {
+      if (totalBytes <= maxBytes) {
+        break;
+      }
+      Files.deleteIfExists(file.path());
+      totalBytes -= file.size();
+      evicted++;
+    }
+    this.logger.lifecycle("Evicted {} decompiled source units from {}", evicted, cacheRoot);
+  }
+
+  private FileTime lastUsed(Path versionDir, String markerSuffix) {
+    try (Stream<Path> stream = Files.list(versionDir)) {
+      Path marker = stream.filter(file -> file.getFileName().toString().endsWith(markerSuffix))
+        .findFirst()
+        .orElse(versionDir);
+      return Files.getLastModifiedTime(marker);
+    } catch (IOException e) {
+      return FileTime.fromMillis(0);
+    }
+  }
+
+  private record CachedFile(Path path, long size, FileTime lastUsed) {
+  }
+}
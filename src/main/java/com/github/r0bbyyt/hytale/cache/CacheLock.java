@@ -0,0 +1,64 @@
+package com.github.r0bbyyt.hytale.cache;
+
+import org.gradle.api.logging.Logger;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Exclusive lock on a cache directory, held across processes and across builds in the same JVM
+public final class CacheLock implements AutoCloseable {
+
+  private static final long POLL_INTERVAL_MILLIS = 200;
+
+  private final FileChannel channel;
+  private final FileLock lock;
+
+  private CacheLock(FileChannel channel, FileLock lock) {
+    this.channel = channel;
+    this.lock = lock;
+  }
+
+  public static CacheLock acquire(Path lockFile, Logger logger) throws IOException {
+    Files.createDirectories(lockFile.getParent());
+    FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    boolean waiting = false;
+    while (true) {
+      try {
+        FileLock lock = channel.tryLock();
+        if (lock != null) {
+          return new CacheLock(channel, lock);
+        }
+      } catch (OverlappingFileLockException e) {
+        // Held by another build running in this JVM, wait for it like for any other process
+      }
+
+      if (!waiting) {
+        logger.lifecycle("Waiting for another build to release {}", lockFile);
+        waiting = true;
+      }
+
+      try {
+        Thread.sleep(POLL_INTERVAL_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        channel.close();
+        throw new InterruptedIOException("Interrupted while waiting for " + lockFile);
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      this.lock.release();
+    } finally {
+      this.channel.close();
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.github.r0bbyyt.hytale.decompile;
+
+import org.jetbrains.java.decompiler.main.extern.IResultSaver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.jar.Manifest;
+
+// Streams every decompiled class straight into the cache, nothing else is written
+public final class CacheResultSaver implements IResultSaver {
+
+  private final Map<String, String> units;
+  private final DecompileCache cache;
+
+  public CacheResultSaver(Map<String, String> units, DecompileCache cache) {
+    this.units = units;
+    this.cache = cache;
+  }
+
+  @Override
+  public void saveClassEntry(String path, String archiveName, String qualifiedName, String entryName, String content) {
+    this.store(entryName, content);
+  }
+
+  @Override
+  public void saveClassFile(String path, String qualifiedName, String entryName, String content, int[] mapping) {
+    this.store(entryName, content);
+  }
+
+  private void store(String entryName, String content) {
+    if (content == null || !entryName.endsWith(DecompileCache.SOURCE_EXTENSION)) {
+      return;
+    }
+
+    String unit = entryName.substring(0, entryName.length() - DecompileCache.SOURCE_EXTENSION.length());
+    String hash = this.units.get(unit);
+    if (hash == null) {
+      return;
+    }
+
+    try {
+      this.cache.store(hash, content);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to cache decompiled source of " + unit, e);
+    }
+  }
+
+  @Override
+  public void saveFolder(String path) {
+  }
+
+  @Override
+  public void copyFile(String source, String path, String entryName) {
+  }
+
+  @Override
+  public void createArchive(String path, String archiveName, Manifest manifest) {
+  }
+
+  @Override
+  public void saveDirEntry(String path, String archiveName, String entryName) {
+  }
+
+  @Override
+  public void copyEntry(String source, String path, String archiveName, String entry) {
+  }
+
+  @Override
+  public void closeArchive(String path, String archiveName) {
+  }
+}
@@ -0,0 +1,56 @@
+package com.github.r0bbyyt.hytale.decompile;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+// Matches internal class names against include and exclude globs, inner classes follow their outer class
+public final class ClassFilter implements Predicate<String> {
+
+  private final List<Pattern> includes;
+  private final List<Pattern> excludes;
+
+  private ClassFilter(List<Pattern> includes, List<Pattern> excludes) {
+    this.includes = includes;
+    this.excludes = excludes;
+  }
+
+  public static ClassFilter of(List<String> includes, List<String> excludes) {
+    return new ClassFilter(
+      includes.stream().map(ClassFilter::compile).toList(),
+      excludes.stream().map(ClassFilter::compile).toList()
+    );
+  }
+
+  @Override
+  public boolean test(String className) {
+    String outerClass = outerClassOf(className);
+    return this.includes.stream().anyMatch(pattern -> pattern.matcher(outerClass).matches())
+           && this.excludes.stream().noneMatch(pattern -> pattern.matcher(outerClass).matches());
+  }
+
+  private static String outerClassOf(String className) {
+    int separator = className.indexOf('$', className.lastIndexOf('/') + 1);
+    return separator > 0 ? className.substring(0, separator) : className;
+  }
+
+  // ** spans packages, * and ? stay within one package or class name
+  private static Pattern compile(String glob) {
+    String path = glob.trim().replace('.', '/');
+    StringBuilder regex = new StringBuilder();
+    for (int i = 0; i < path.length(); i++) {
+      char c = path.charAt(i);
+      if (c == '*' && i + 1 < path.length() && path.charAt(i + 1) == '*') {
+        regex.append(".*");
+        i++;
+      } else if (c == '*') {
+        regex.append("[^/]*");
+      } else if (c == '?') {
+        regex.append("[^/]");
+      } else {
+        regex.append(Pattern.quote(String.valueOf(c)));
+      }
+    }
+    return Pattern.compile(regex.toString());
+  }
+}
@@ -0,0 +1,132 @@
+package com.github.r0bbyyt.hytale.decompile;
+
+import com.github.r0bbyyt.hytale.util.RawZipFile;
+import com.github.r0bbyyt.hytale.util.Util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+// Groups the decompilable classes of a JAR into source units: a top-level class plus its inner classes
+public final class ClassIndex {
+
+  private static final int ENTRY_HEADER_SIZE = Integer.BYTES + Long.BYTES;
+
+  private final Map<String, Unit> units;
+  private final long jarClassBytes;
+
+  private ClassIndex(Map<String, Unit> units, long jarClassBytes) {
+    this.units = units;
+    this.jarClassBytes = jarClassBytes;
+  }
+
+  public static ClassIndex read(Path jar, Predicate<String> classFilter) throws IOException {
+    Map<String, byte[]> classDigests = new HashMap<>();
+    Map<String, Long> classSizes = new HashMap<>();
+    long jarClassBytes = 0;
+    // Hashes the entries as stored, identical compressed bytes always inflate to identical classes
+    try (RawZipFile zipFile = RawZipFile.open(jar)) {
+      for (RawZipFile.Entry entry : zipFile.entries()) {
+        String name = entry.name();
+        if (!Decompiler.isClass(name)) {
+          continue;
+        }
+
+        jarClassBytes += entry.size();
+        String className = name.substring(0, name.length() - Decompiler.CLASS_EXTENSION.length());
+        if (!classFilter.test(className)) {
+          continue;
+        }
+
+        MessageDigest digest = Util.newSha256();
+        digest.update(ByteBuffer.allocate(ENTRY_HEADER_SIZE).putInt(entry.method()).putLong(entry.size()).flip());
+        zipFile.readRaw(entry, digest::update);
+        classDigests.put(className, digest.digest());
+        classSizes.put(className, entry.size());
+      }
+    }
+
+    // Sorted, so every unit digests its classes in a stable order
+    Map<String, MessageDigest> unitDigests = new TreeMap<>();
+    Map<String, Long> unitSizes = new HashMap<>();
+    for (String className : new TreeMap<>(classDigests).keySet()) {
+      String unit = unitOf(className, classDigests::containsKey);
+      MessageDigest digest = unitDigests.computeIfAbsent(unit, key -> Util.newSha256());
+      digest.update(className.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(classDigests.get(className));
+      unitSizes.merge(unit, classSizes.get(className), Long::sum);
+    }
+
+    Map<String, Unit> units = new TreeMap<>();
+    unitDigests.forEach((name, digest) -> units.put(
+      name,
+      new Unit(name, HexFormat.of().formatHex(digest.digest()), unitSizes.get(name))
+    ));
+    return new ClassIndex(Collections.unmodifiableMap(units), jarClassBytes);
+  }
+
+  // The outermost enclosing class that is itself part of the unit set, e.g. a/Foo for a/Foo$Bar$1
+  public static String unitOf(String className, Predicate<String> isUnit) {
+    int separator = className.indexOf('$', className.lastIndexOf('/') + 1);
+    while (separator > 0) {
+      String candidate = className.substring(0, separator);
+      if (isUnit.test(candidate)) {
+        return candidate;
+      }
+      separator = className.indexOf('$', separator + 1);
+    }
+    return className;
+  }
+
+  // Keeps the units containing one of the given classes, e.g. a/Foo for a reference to a/Foo$Bar
+  public ClassIndex retainReferenced(Set<String> classNames) {
+    Map<String, Unit> retained = new TreeMap<>();
+    for (String className : classNames) {
+      Unit unit = this.units.get(unitOf(className, this.units::containsKey));
+      if (unit != null) {
+        retained.put(unit.name(), unit);
+      }
+    }
+    return new ClassIndex(Collections.unmodifiableMap(retained), this.jarClassBytes);
+  }
+
+  // Identifies the selected units and their content, the sources JAR only changes when this does
+  public String fingerprint() {
+    MessageDigest digest = Util.newSha256();
+    for (Unit unit : this.units.values()) {
+      digest.update((unit.name() + '=' + unit.hash() + '\n').getBytes(StandardCharsets.UTF_8));
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  public Collection<Unit> units() {
+    return this.units.values();
+  }
+
+  public Set<String> names() {
+    return this.units.keySet();
+  }
+
+  public Unit get(String name) {
+    return this.units.get(name);
+  }
+
+  // Uncompressed size of every class in the JAR, selected or not, Vineflower loads all of them as library
+  public long jarClassBytes() {
+    return this.jarClassBytes;
+  }
+
+  public record Unit(String name, String hash, long size) {
+  }
+}
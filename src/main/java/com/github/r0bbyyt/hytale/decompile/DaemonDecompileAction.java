@@ -0,0 +1,25 @@
+package com.github.r0bbyyt.hytale.decompile;
+
+import org.gradle.workers.WorkAction;
+
+import java.io.IOException;
+
+// Hands a shard to the decompiler daemon, runs without isolation as the daemon does the actual work
+public abstract class DaemonDecompileAction implements WorkAction<DaemonDecompileParameters> {
+
+  @Override
+  public void execute() {
+    DaemonDecompileParameters params = this.getParameters();
+    try {
+      params.getDaemon().get().decompile(
+        params.getStateDirectory().get().getAsFile(),
+        params.getServerJar().get().getAsFile(),
+        params.getUnits().get(),
+        params.getCacheDirectory().get().getAsFile(),
+        params.getOptions().get()
+      );
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to decompile server sources in the decompiler daemon", e);
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package com.github.r0bbyyt.hytale.decompile;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+
+public interface DaemonDecompileParameters extends DecompileParameters {
+
+  Property<DecompilerDaemonService> getDaemon();
+
+  // Where the daemon publishes its port and token
+  DirectoryProperty getStateDirectory();
+}
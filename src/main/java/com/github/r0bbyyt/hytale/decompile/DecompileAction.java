@@ -0,0 +1,24 @@
+package com.github.r0bbyyt.hytale.decompile;
+
+import org.gradle.workers.WorkAction;
+
+import java.io.IOException;
+
+public abstract class DecompileAction implements WorkAction<DecompileParameters> {
+
+  @Override
+  public void execute() {
+    DecompileParameters params = this.getParameters();
+    DecompileCache cache = new DecompileCache(params.getCacheDirectory().get().getAsFile().toPath());
+    try {
+      Decompiler.decompile(
+        params.getServerJar().get().getAsFile(),
+        params.getUnits().get(),
+        cache,
+        params.getOptions().get()
+      );
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to decompile server sources", e);
+    }
+  }
+}
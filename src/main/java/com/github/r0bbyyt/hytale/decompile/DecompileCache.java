@@ -0,0 +1,80 @@
+package com.github.r0bbyyt.hytale.decompile;
+
+import com.github.r0bbyyt.hytale.util.Util;
+import org.jetbrains.java.decompiler.main.Fernflower;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Content-addressed store of decompiled source units, keyed by the SHA-256 of their class files
+public final class DecompileCache {
+
+  public static final String SOURCE_EXTENSION = ".java";
+  private static final int OPTIONS_KEY_LENGTH = 16;
+
+  private final Path directory;
+
+  public DecompileCache(Path directory) {
+    this.directory = directory;
+  }
+
+  public static DecompileCache forOptions(Path root, Map<String, String> options) {
+    return new DecompileCache(root.resolve(optionsKey(options)));
+  }
+
+  // Sources are only reusable when produced by the same decompiler build with the same options
+  public static String optionsKey(Map<String, String> options) {
+    MessageDigest digest = Util.newSha256();
+    String decompilerVersion = Fernflower.class.getPackage().getImplementationVersion();
+    digest.update(String.valueOf(decompilerVersion).getBytes(StandardCharsets.UTF_8));
+    new TreeMap<>(options).forEach((key, value) -> {
+      digest.update(('\n' + key + '=' + value).getBytes(StandardCharsets.UTF_8));
+    });
+    return HexFormat.of().formatHex(digest.digest()).substring(0, OPTIONS_KEY_LENGTH);
+  }
+
+  public Path getDirectory() {
+    return this.directory;
+  }
+
+  public Path path(String hash) {
+    return this.directory.resolve(hash.substring(0, 2)).resolve(hash + SOURCE_EXTENSION);
+  }
+
+  public boolean contains(String hash) {
+    return Files.exists(this.path(hash));
+  }
+
+  public InputStream open(String hash) throws IOException {
+    return Files.newInputStream(this.path(hash));
+  }
+
+  // Marks a unit as recently used for the size-based eviction
+  public void touch(String hash) throws IOException {
+    Files.setLastModifiedTime(this.path(hash), FileTime.from(Instant.now()));
+  }
+
+  public void store(String hash, String source) throws IOException {
+    Path target = this.path(hash);
+    Files.createDirectories(target.getParent());
+
+    // Written next to the target and moved into place, so concurrent readers never see partial files
+    Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+    try {
+      Files.writeString(temp, source, StandardCharsets.UTF_8);
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+}
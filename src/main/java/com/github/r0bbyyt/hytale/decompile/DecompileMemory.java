@@ -0,0 +1,115 @@
+package com.github.r0bbyyt.hytale.decompile;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+
+// Sizes decompiler heaps and shard counts from the amount of bytecode, bounded by the physical memory of the machine
+public final class DecompileMemory {
+
+  public static final long MEBIBYTE = 1024L * 1024L;
+  public static final long MIN_HEAP = 512 * MEBIBYTE;
+  // Left to the IDE, the Gradle daemon and the operating system
+  public static final double PHYSICAL_MEMORY_SHARE = 0.5;
+
+  // Rough estimate of the peak usage: JVM and Vineflower baseline, the structures of every class loaded as library,
+  // and the statement graphs and source text of the classes being decompiled
+  private static final long BASE_HEAP = 256 * MEBIBYTE;
+  private static final int LIBRARY_FACTOR = 6;
+  private static final int UNIT_FACTOR = 40;
+  private static final long UNIT_OVERHEAD = 256 * 1024;
+  private static final long HEAP_ALIGNMENT = 64 * MEBIBYTE;
+  private static final long FALLBACK_PHYSICAL_MEMORY = 8192 * MEBIBYTE;
+
+  private DecompileMemory() {
+  }
+
+  public static long physicalMemory() {
+    if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean bean) {
+      return bean.getTotalMemorySize();
+    }
+    return FALLBACK_PHYSICAL_MEMORY;
+  }
+
+  // Total heap all decompiler JVMs of one build may use together
+  public static long budget() {
+    return Math.max(MIN_HEAP, (long) (physicalMemory() * PHYSICAL_MEMORY_SHARE));
+  }
+
+  public static long estimateHeap(long jarClassBytes, long shardBytes, int shardUnits) {
+    long heap = BASE_HEAP
+                + LIBRARY_FACTOR * jarClassBytes
+                + UNIT_FACTOR * shardBytes
+                + UNIT_OVERHEAD * shardUnits;
+    return Math.max(MIN_HEAP, align(heap));
+  }
+
+  // The most shards that run in parallel within the budget, falling back to one capped shard
+  public static Plan plan(
+    long jarClassBytes,
+    Collection<ClassIndex.Unit> units,
+    Integer shards,
+    Long heapSize,
+    int maxParallel,
+    long budget
+  ) {
+    long totalBytes = units.stream().mapToLong(ClassIndex.Unit::size).sum();
+    int maxShards = Math.max(1, Math.min(maxParallel, units.size()));
+    if (shards != null) {
+      int count = Math.max(1, shards);
+      int parallel = Math.min(count, maxShards);
+      long heap = heapSize != null
+        ? heapSize
+        : cap(estimateHeap(jarClassBytes, totalBytes / count, units.size() / count), budget / parallel);
+      return new Plan(count, parallel, heap);
+    }
+
+    for (int count = maxShards; count > 1; count--) {
+      long heap = heapSize != null ? heapSize : estimateHeap(jarClassBytes, totalBytes / count, units.size() / count);
+      if (heap * count <= budget) {
+        return new Plan(count, count, heap);
+      }
+    }
+    long heap = heapSize != null ? heapSize : cap(estimateHeap(jarClassBytes, totalBytes, units.size()), budget);
+    return new Plan(1, 1, heap);
+  }
+
+  public static boolean isOutOfMemory(Throwable failure) {
+    // Failures of worker processes and the daemon arrive as wrapped or stringified copies
+    for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+      if (cause instanceof OutOfMemoryError || String.valueOf(cause).contains(OutOfMemoryError.class.getName())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // JVM memory notation, e.g. 4g, 512m or 1024k
+  public static long parseSize(String size) {
+    String value = size.trim().toLowerCase();
+    long unit = switch (value.charAt(value.length() - 1)) {
+      case 'k' -> 1024L;
+      case 'm' -> MEBIBYTE;
+      case 'g' -> 1024L * MEBIBYTE;
+      case 't' -> 1024L * 1024L * MEBIBYTE;
+      default -> 1L;
+    };
+    String digits = unit == 1L ? value : value.substring(0, value.length() - 1);
+    return Long.parseLong(digits) * unit;
+  }
+
+  public static String formatSize(long bytes) {
+    return (bytes / MEBIBYTE) + "m";
+  }
+
+  private static long cap(long heap, long limit) {
+    return Math.max(MIN_HEAP, Math.min(heap, limit / HEAP_ALIGNMENT * HEAP_ALIGNMENT));
+  }
+
+  private static long align(long bytes) {
+    return (bytes + HEAP_ALIGNMENT - 1) / HEAP_ALIGNMENT * HEAP_ALIGNMENT;
+  }
+
+  // Shards are decompiled in waves of at most parallel shards, each JVM with the given heap
+  public record Plan(int shards, int parallel, long heapSize) {
+  }
+}
@@ -0,0 +1,18 @@
+package com.github.r0bbyyt.hytale.decompile;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.workers.WorkParameters;
+
+public interface DecompileParameters extends WorkParameters {
+
+  RegularFileProperty getServerJar();
+
+  // Source unit name to the hash it is stored under in the cache
+  MapProperty<String, String> getUnits();
+
+  DirectoryProperty getCacheDirectory();
+
+  MapProperty<String, String> getOptions();
+}
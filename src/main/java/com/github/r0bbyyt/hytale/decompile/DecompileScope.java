@@ -0,0 +1,33 @@
+package com.github.r0bbyyt.hytale.decompile;
+
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+
+import java.util.List;
+
+// Which server classes end up in the sources JAR, patterns are globs over class names like com.hypixel.**
+public abstract class DecompileScope {
+
+  public static final String DEFAULT_INCLUDE = "com.hypixel.**";
+
+  public DecompileScope() {
+    this.getIncludes().convention(List.of(DEFAULT_INCLUDE));
+    this.getExcludes().convention(List.of());
+    this.getReferencedOnly().convention(false);
+  }
+
+  public abstract ListProperty<String> getIncludes();
+
+  public abstract ListProperty<String> getExcludes();
+
+  // Only decompiles the server classes referenced by the compiled classes of the main source set
+  public abstract Property<Boolean> getReferencedOnly();
+
+  public void include(String... patterns) {
+    this.getIncludes().addAll(patterns);
+  }
+
+  public void exclude(String... patterns) {
+    this.getExcludes().addAll(patterns);
+  }
+}
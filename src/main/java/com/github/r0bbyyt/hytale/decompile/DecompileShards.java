@@ -0,0 +1,68 @@
+package com.github.r0bbyyt.hytale.decompile;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Shards are partitioned by package, which keeps inner classes next to their outer class
+public final class DecompileShards {
+
+  private DecompileShards() {
+  }
+
+  public static List<Set<String>> partition(Collection<ClassIndex.Unit> units, int shardCount) {
+    Map<String, Long> packageSizes = new HashMap<>();
+    Map<String, Set<String>> packageUnits = new HashMap<>();
+    for (ClassIndex.Unit unit : units) {
+      String packageName = packageOf(unit.name());
+      packageSizes.merge(packageName, unit.size(), Long::sum);
+      packageUnits.computeIfAbsent(packageName, key -> new TreeSet<>()).add(unit.name());
+    }
+
+    List<Set<String>> shards = new ArrayList<>();
+    for (Set<String> packages : partition(packageSizes, shardCount)) {
+      Set<String> shard = new TreeSet<>();
+      for (String packageName : packages) {
+        shard.addAll(packageUnits.get(packageName));
+      }
+      shards.add(shard);
+    }
+    return shards;
+  }
+
+  static List<Set<String>> partition(Map<String, Long> packageSizes, int shardCount) {
+    int count = Math.max(1, Math.min(shardCount, packageSizes.size()));
+    List<Set<String>> shards = new ArrayList<>(count);
+    long[] loads = new long[count];
+    for (int i = 0; i < count; i++) {
+      shards.add(new TreeSet<>());
+    }
+
+    // Largest packages first, each into the currently lightest shard
+    List<Map.Entry<String, Long>> packages = new ArrayList<>(packageSizes.entrySet());
+    packages.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+      .thenComparing(Map.Entry.comparingByKey()));
+    for (Map.Entry<String, Long> entry : packages) {
+      int lightest = 0;
+      for (int i = 1; i < count; i++) {
+        if (loads[i] < loads[lightest]) {
+          lightest = i;
+        }
+      }
+      shards.get(lightest).add(entry.getKey());
+      loads[lightest] += entry.getValue();
+    }
+
+    return shards;
+  }
+
+  public static String packageOf(String entryName) {
+    int separator = entryName.lastIndexOf('/');
+    return separator < 0 ? "" : entryName.substring(0, separator);
+  }
+}
@@ -0,0 +1,64 @@
+package com.github.r0bbyyt.hytale.decompile;
+
+import org.jetbrains.java.decompiler.main.Fernflower;
+import org.jetbrains.java.decompiler.main.decompiler.PrintStreamLogger;
+import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Runs Vineflower over a set of source units, free of Gradle types so the decompiler daemon can use it as well
+public final class Decompiler {
+
+  public static final String CLASS_EXTENSION = ".class";
+  public static final String INDENT_STRING = "    ";
+
+  // Sorted, the iteration order of Map.of differs between JVMs and would break the build cache key
+  public static final Map<String, String> DEFAULT_OPTIONS = Collections.unmodifiableSortedMap(new TreeMap<>(Map.of(
+    IFernflowerPreferences.DECOMPILE_GENERIC_SIGNATURES, "1",
+    IFernflowerPreferences.REMOVE_SYNTHETIC, "1",
+    IFernflowerPreferences.INDENT_STRING, INDENT_STRING
+  )));
+
+  private Decompiler() {
+  }
+
+  public static String flag(boolean enabled) {
+    return enabled ? "1" : "0";
+  }
+
+  public static boolean isClass(String entryName) {
+    return entryName.endsWith(CLASS_EXTENSION);
+  }
+
+  // Decompiles the given source units of the server JAR into the cache, in the calling thread
+  public static void decompile(
+    File serverJar,
+    Map<String, String> units,
+    DecompileCache cache,
+    Map<String, String> options
+  ) throws IOException {
+    try (FilteredJarSource source = new FilteredJarSource(
+      serverJar,
+      className -> units.containsKey(ClassIndex.unitOf(className, units::containsKey))
+    )) {
+      Fernflower decompiler = new Fernflower(
+        new CacheResultSaver(units, cache),
+        Map.copyOf(options),
+        new PrintStreamLogger(System.out)
+      );
+
+      decompiler.addSource(source);
+      // The full server JAR resolves references into classes decompiled by other shards
+      decompiler.addLibrary(serverJar);
+      try {
+        decompiler.decompileContext();
+      } finally {
+        decompiler.clearContext();
+      }
+    }
+  }
+}
@@ -0,0 +1,211 @@
+package com.github.r0bbyyt.hytale.decompile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Long-lived decompiler JVM, keeps Vineflower loaded and JIT compiled between builds until it is idle for too long.
+// Runs without Gradle on the classpath, jobs arrive over a loopback socket guarded by a token from the state file.
+public final class DecompilerDaemon {
+
+  private static final byte REQUEST_PING = 0;
+  private static final byte REQUEST_DECOMPILE = 1;
+  private static final int TOKEN_BYTES = 16;
+  private static final int PING_TIMEOUT_MILLIS = 5_000;
+  // Below the 64 KiB limit of writeUTF
+  private static final int MAX_MESSAGE_LENGTH = 16 * 1024;
+
+  private final Path stateFile;
+  private final Duration idleTimeout;
+  private final String token;
+  private final AtomicInteger activeJobs = new AtomicInteger();
+
+  private DecompilerDaemon(Path stateFile, Duration idleTimeout) {
+    this.stateFile = stateFile;
+    this.idleTimeout = idleTimeout;
+    byte[] token = new byte[TOKEN_BYTES];
+    new SecureRandom().nextBytes(token);
+    this.token = HexFormat.of().formatHex(token);
+  }
+
+  // Arguments: state file, idle timeout in seconds
+  public static void main(String[] args) throws IOException {
+    new DecompilerDaemon(Path.of(args[0]), Duration.ofSeconds(Long.parseLong(args[1]))).run();
+  }
+
+  public static Endpoint readEndpoint(Path stateFile) throws IOException {
+    if (!Files.exists(stateFile)) {
+      return null;
+    }
+
+    List<String> lines = Files.readAllLines(stateFile);
+    if (lines.size() < 2) {
+      return null;
+    }
+    return new Endpoint(Integer.parseInt(lines.get(0)), lines.get(1));
+  }
+
+  public static boolean ping(Endpoint endpoint) {
+    try (Socket socket = connect(endpoint)) {
+      socket.setSoTimeout(PING_TIMEOUT_MILLIS);
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      out.writeUTF(endpoint.token());
+      out.writeByte(REQUEST_PING);
+      out.flush();
+      return new DataInputStream(socket.getInputStream()).readBoolean();
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  // Blocks until the daemon finished the job, transport errors surface as IOException
+  public static void decompile(
+    Endpoint endpoint,
+    File serverJar,
+    Map<String, String> units,
+    File cacheDirectory,
+    Map<String, String> options
+  ) throws IOException {
+    try (Socket socket = connect(endpoint)) {
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      out.writeUTF(endpoint.token());
+      out.writeByte(REQUEST_DECOMPILE);
+      out.writeUTF(serverJar.getAbsolutePath());
+      out.writeUTF(cacheDirectory.getAbsolutePath());
+      writeMap(out, options);
+      writeMap(out, units);
+      out.flush();
+
+      DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      boolean success = in.readBoolean();
+      String message = in.readUTF();
+      if (!success) {
+        throw new IllegalStateException("Decompiler daemon failed: " + message);
+      }
+    }
+  }
+
+  private void run() throws IOException {
+    try (ServerSocket server = new ServerSocket()) {
+      server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+      server.setSoTimeout((int) Math.min(Integer.MAX_VALUE, this.idleTimeout.toMillis()));
+      this.writeState(server.getLocalPort());
+      System.out.println("Decompiler daemon listening on port " + server.getLocalPort());
+
+      while (true) {
+        Socket socket;
+        try {
+          socket = server.accept();
+        } catch (SocketTimeoutException e) {
+          if (this.activeJobs.get() == 0) {
+            break;
+          }
+          continue;
+        }
+
+        this.activeJobs.incrementAndGet();
+        Thread handler = new Thread(() -> this.handle(socket), "decompiler-job");
+        handler.start();
+      }
+    } finally {
+      this.deleteState();
+    }
+    System.out.println("Decompiler daemon stopped after being idle for " + this.idleTimeout);
+  }
+
+  private void handle(Socket socket) {
+    try (socket) {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      if (!this.token.equals(in.readUTF())) {
+        return;
+      }
+
+      if (in.readByte() == REQUEST_PING) {
+        out.writeBoolean(true);
+        out.flush();
+        return;
+      }
+
+      File serverJar = new File(in.readUTF());
+      DecompileCache cache = new DecompileCache(Path.of(in.readUTF()));
+      Map<String, String> options = readMap(in);
+      Map<String, String> units = readMap(in);
+      try {
+        Decompiler.decompile(serverJar, units, cache, options);
+        out.writeBoolean(true);
+        out.writeUTF("");
+      } catch (Exception | OutOfMemoryError e) {
+        StringWriter trace = new StringWriter();
+        e.printStackTrace(new PrintWriter(trace));
+        out.writeBoolean(false);
+        out.writeUTF(trace.toString().substring(0, Math.min(trace.getBuffer().length(), MAX_MESSAGE_LENGTH)));
+      }
+      out.flush();
+    } catch (IOException e) {
+      e.printStackTrace();
+    } finally {
+      this.activeJobs.decrementAndGet();
+    }
+  }
+
+  // Moved into place, so clients never read a partially written state
+  private void writeState(int port) throws IOException {
+    Files.createDirectories(this.stateFile.getParent());
+    Path temp = Files.createTempFile(this.stateFile.getParent(), this.stateFile.getFileName().toString(), ".tmp");
+    Files.writeString(temp, port + "\n" + this.token + "\n");
+    Files.move(temp, this.stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  // A newer daemon may have replaced the state file already
+  private void deleteState() throws IOException {
+    Endpoint endpoint = readEndpoint(this.stateFile);
+    if (endpoint != null && endpoint.token().equals(this.token)) {
+      Files.deleteIfExists(this.stateFile);
+    }
+  }
+
+  private static Socket connect(Endpoint endpoint) throws IOException {
+    return new Socket(InetAddress.getLoopbackAddress(), endpoint.port());
+  }
+
+  private static void writeMap(DataOutputStream out, Map<String, String> map) throws IOException {
+    out.writeInt(map.size());
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      out.writeUTF(entry.getKey());
+      out.writeUTF(entry.getValue());
+    }
+  }
+
+  private static Map<String, String> readMap(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    Map<String, String> map = new TreeMap<>();
+    for (int i = 0; i < size; i++) {
+      map.put(in.readUTF(), in.readUTF());
+    }
+    return map;
+  }
+
+  public record Endpoint(int port, String token) {
+  }
+}
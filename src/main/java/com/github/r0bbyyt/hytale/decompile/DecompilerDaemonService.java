@@ -0,0 +1,166 @@
+package com.github.r0bbyyt.hytale.decompile;
+
+import com.github.r0bbyyt.hytale.cache.CacheLock;
+import com.github.r0bbyyt.hytale.util.Util;
+import org.gradle.api.GradleException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.jetbrains.java.decompiler.main.Fernflower;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+// Finds or starts the decompiler daemon of this plugin build. The daemon is not stopped when the build finishes,
+// later builds connect to it again through its state file until it shuts itself down after the idle timeout.
+public abstract class DecompilerDaemonService implements BuildService<DecompilerDaemonService.Parameters> {
+
+  public static final String NAME = "hytaleDecompilerDaemon";
+
+  private static final Logger LOGGER = Logging.getLogger(DecompilerDaemonService.class);
+  private static final String STATE_EXTENSION = ".state";
+  private static final String LOCK_EXTENSION = ".lock";
+  private static final String LOG_EXTENSION = ".log";
+  private static final int KEY_LENGTH = 16;
+  private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(1);
+  private static final long POLL_INTERVAL_MILLIS = 100;
+
+  private DecompilerDaemon.Endpoint endpoint;
+
+  public void decompile(
+    File stateDirectory,
+    File serverJar,
+    Map<String, String> units,
+    File cacheDirectory,
+    Map<String, String> options
+  ) throws IOException {
+    Path directory = stateDirectory.toPath();
+    DecompilerDaemon.Endpoint endpoint = this.endpoint(directory, null);
+    try {
+      DecompilerDaemon.decompile(endpoint, serverJar, units, cacheDirectory, options);
+    } catch (IOException e) {
+      // The daemon may have hit its idle timeout right after the ping, jobs are safe to repeat
+      LOGGER.info("Lost connection to the decompiler daemon, restarting it", e);
+      DecompilerDaemon.decompile(this.endpoint(directory, endpoint), serverJar, units, cacheDirectory, options);
+    }
+  }
+
+  // Reuses the known endpoint unless it is the given broken one, otherwise connects to or starts the daemon
+  private synchronized DecompilerDaemon.Endpoint endpoint(
+    Path directory,
+    DecompilerDaemon.Endpoint broken
+  ) throws IOException {
+    if (this.endpoint != null && !this.endpoint.equals(broken)) {
+      return this.endpoint;
+    }
+
+    List<String> classpath = classpath();
+    String key = daemonKey(classpath, this.heapSize());
+    Path stateFile = directory.resolve(key + STATE_EXTENSION);
+
+    // Keeps concurrent builds from starting a daemon each
+    try (CacheLock ignored = CacheLock.acquire(directory.resolve(key + LOCK_EXTENSION), LOGGER)) {
+      DecompilerDaemon.Endpoint existing = DecompilerDaemon.readEndpoint(stateFile);
+      if (existing != null && !existing.equals(broken) && DecompilerDaemon.ping(existing)) {
+        LOGGER.lifecycle("Reusing the running decompiler daemon");
+        this.endpoint = existing;
+        return existing;
+      }
+
+      Files.deleteIfExists(stateFile);
+      this.endpoint = this.start(classpath, stateFile, directory.resolve(key + LOG_EXTENSION));
+      return this.endpoint;
+    }
+  }
+
+  private DecompilerDaemon.Endpoint start(List<String> classpath, Path stateFile, Path logFile) throws IOException {
+    Parameters parameters = this.getParameters();
+    String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    LOGGER.lifecycle("Starting the decompiler daemon, logging to {}", logFile);
+
+    Process process = new ProcessBuilder(
+      java,
+      "-Xmx" + this.heapSize(),
+      "-cp",
+      String.join(File.pathSeparator, classpath),
+      DecompilerDaemon.class.getName(),
+      stateFile.toString(),
+      String.valueOf(parameters.getIdleTimeout().get().toSeconds())
+    )
+      .redirectErrorStream(true)
+      .redirectOutput(logFile.toFile())
+      .start();
+
+    long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+    while (System.nanoTime() < deadline) {
+      DecompilerDaemon.Endpoint endpoint = DecompilerDaemon.readEndpoint(stateFile);
+      if (endpoint != null && DecompilerDaemon.ping(endpoint)) {
+        return endpoint;
+      }
+      if (!process.isAlive()) {
+        throw new GradleException("Decompiler daemon exited with code " + process.exitValue() + ", see " + logFile);
+      }
+
+      try {
+        Thread.sleep(POLL_INTERVAL_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        process.destroy();
+        throw new InterruptedIOException("Interrupted while starting the decompiler daemon");
+      }
+    }
+
+    process.destroy();
+    throw new GradleException("Decompiler daemon did not start within " + STARTUP_TIMEOUT + ", see " + logFile);
+  }
+
+  // Without an explicit size the daemon may use the whole budget, the JVM only commits what the jobs need
+  public String heapSize() {
+    return this.getParameters().getHeapSize().getOrElse(DecompileMemory.formatSize(DecompileMemory.budget()));
+  }
+
+  // The plugin classes and Vineflower, nothing of Gradle is needed by the daemon
+  private static List<String> classpath() {
+    List<String> classpath = new ArrayList<>();
+    for (Class<?> type : List.of(Decompiler.class, Fernflower.class)) {
+      try {
+        classpath.add(Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString());
+      } catch (URISyntaxException e) {
+        throw new IllegalStateException("Cannot locate the classpath entry of " + type.getName(), e);
+      }
+    }
+    return classpath;
+  }
+
+  // A daemon only serves the exact plugin build and heap it was started with
+  private static String daemonKey(List<String> classpath, String heapSize) throws IOException {
+    MessageDigest digest = Util.newSha256();
+    digest.update(heapSize.getBytes(StandardCharsets.UTF_8));
+    for (String entry : classpath) {
+      String modified = String.valueOf(Files.getLastModifiedTime(Path.of(entry)).toMillis());
+      digest.update(('\n' + entry + '@' + modified).getBytes(StandardCharsets.UTF_8));
+    }
+    return HexFormat.of().formatHex(digest.digest()).substring(0, KEY_LENGTH);
+  }
+
+  public interface Parameters extends BuildServiceParameters {
+
+    // Optional, sized from the physical memory when absent
+    Property<String> getHeapSize();
+
+    Property<Duration> getIdleTimeout();
+  }
+}
@@ -0,0 +1,93 @@
+package com.github.r0bbyyt.hytale.decompile;
+
+import org.jetbrains.java.decompiler.main.extern.IContextSource;
+import org.jetbrains.java.decompiler.main.extern.IResultSaver;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Exposes a subset of the classes of a JAR to Fernflower without writing a filtered copy of it
+public final class FilteredJarSource implements IContextSource, AutoCloseable {
+
+  private final File jar;
+  private final ZipFile zipFile;
+  private final Predicate<String> classFilter;
+
+  public FilteredJarSource(File jar, Predicate<String> classFilter) throws IOException {
+    this.jar = jar;
+    this.zipFile = new ZipFile(jar);
+    this.classFilter = classFilter;
+  }
+
+  @Override
+  public String getName() {
+    return "filtered archive " + this.jar.getAbsolutePath();
+  }
+
+  @Override
+  public Entries getEntries() {
+    List<Entry> classes = new ArrayList<>();
+    Enumeration<? extends ZipEntry> entries = this.zipFile.entries();
+    while (entries.hasMoreElements()) {
+      String name = entries.nextElement().getName();
+      if (!Decompiler.isClass(name)) {
+        continue;
+      }
+
+      String className = name.substring(0, name.length() - Decompiler.CLASS_EXTENSION.length());
+      if (this.classFilter.test(className)) {
+        classes.add(Entry.atBase(className));
+      }
+    }
+    return new Entries(classes, List.of(), List.of());
+  }
+
+  @Override
+  public InputStream getInputStream(String resource) throws IOException {
+    ZipEntry entry = this.zipFile.getEntry(resource);
+    if (entry == null) {
+      throw new FileNotFoundException(resource + " not found in " + this.jar);
+    }
+    return this.zipFile.getInputStream(entry);
+  }
+
+  @Override
+  public IOutputSink createOutputSink(IResultSaver saver) {
+    String archiveName = this.jar.getName();
+    return new IOutputSink() {
+      @Override
+      public void begin() {
+      }
+
+      @Override
+      public void acceptClass(String qualifiedName, String fileName, String content, int[] mapping) {
+        saver.saveClassEntry("", archiveName, qualifiedName, fileName, content, mapping);
+      }
+
+      @Override
+      public void acceptDirectory(String directory) {
+      }
+
+      @Override
+      public void acceptOther(String path) {
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.zipFile.close();
+  }
+}
@@ -0,0 +1,118 @@
+package com.github.r0bbyyt.hytale.decompile;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Collects the classes referenced from the constant pools of compiled classes
+public final class ReferenceScanner {
+
+  private static final int MAGIC = 0xCAFEBABE;
+  private static final Pattern DESCRIPTOR_TYPE = Pattern.compile("L([\\w/$]+)[;<]");
+
+  private static final int TAG_UTF8 = 1;
+  private static final int TAG_INTEGER = 3;
+  private static final int TAG_FLOAT = 4;
+  private static final int TAG_LONG = 5;
+  private static final int TAG_DOUBLE = 6;
+  private static final int TAG_CLASS = 7;
+  private static final int TAG_STRING = 8;
+  private static final int TAG_FIELD_REF = 9;
+  private static final int TAG_METHOD_REF = 10;
+  private static final int TAG_INTERFACE_METHOD_REF = 11;
+  private static final int TAG_NAME_AND_TYPE = 12;
+  private static final int TAG_METHOD_HANDLE = 15;
+  private static final int TAG_METHOD_TYPE = 16;
+  private static final int TAG_DYNAMIC = 17;
+  private static final int TAG_INVOKE_DYNAMIC = 18;
+  private static final int TAG_MODULE = 19;
+  private static final int TAG_PACKAGE = 20;
+
+  private ReferenceScanner() {
+  }
+
+  public static Set<String> scan(Iterable<File> classDirectories) throws IOException {
+    Set<String> references = new HashSet<>();
+    for (File directory : classDirectories) {
+      if (!directory.isDirectory()) {
+        continue;
+      }
+
+      List<Path> classFiles;
+      try (Stream<Path> files = Files.walk(directory.toPath())) {
+        classFiles = files.filter(path -> path.toString().endsWith(Decompiler.CLASS_EXTENSION)).toList();
+      }
+      for (Path file : classFiles) {
+        try (InputStream is = new BufferedInputStream(Files.newInputStream(file))) {
+          scanClass(new DataInputStream(is), references);
+        }
+      }
+    }
+    return references;
+  }
+
+  // References of a single class file, as internal names
+  public static Set<String> scanClass(byte[] bytes) throws IOException {
+    Set<String> references = new HashSet<>();
+    scanClass(new DataInputStream(new ByteArrayInputStream(bytes)), references);
+    return references;
+  }
+
+  // Class entries name types directly, descriptors and signatures in UTF-8 entries name the rest
+  private static void scanClass(DataInputStream in, Set<String> references) throws IOException {
+    if (in.readInt() != MAGIC) {
+      return;
+    }
+    in.readUnsignedShort();
+    in.readUnsignedShort();
+
+    int count = in.readUnsignedShort();
+    String[] utf8 = new String[count];
+    Set<Integer> classNames = new HashSet<>();
+    for (int i = 1; i < count; i++) {
+      int tag = in.readUnsignedByte();
+      switch (tag) {
+        case TAG_UTF8 -> utf8[i] = in.readUTF();
+        case TAG_CLASS -> classNames.add(in.readUnsignedShort());
+        case TAG_STRING, TAG_METHOD_TYPE, TAG_MODULE, TAG_PACKAGE -> in.readUnsignedShort();
+        case TAG_METHOD_HANDLE -> {
+          in.readUnsignedByte();
+          in.readUnsignedShort();
+        }
+        case TAG_INTEGER, TAG_FLOAT, TAG_FIELD_REF, TAG_METHOD_REF, TAG_INTERFACE_METHOD_REF, TAG_NAME_AND_TYPE,
+             TAG_DYNAMIC, TAG_INVOKE_DYNAMIC -> in.readInt();
+        case TAG_LONG, TAG_DOUBLE -> {
+          in.readLong();
+          i++;
+        }
+        default -> throw new IOException("Unknown constant pool tag " + tag);
+      }
+    }
+
+    for (int i = 1; i < count; i++) {
+      String value = utf8[i];
+      if (value == null) {
+        continue;
+      }
+
+      if (classNames.contains(i) && value.charAt(0) != '[') {
+        references.add(value);
+      }
+      Matcher matcher = DESCRIPTOR_TYPE.matcher(value);
+      while (matcher.find()) {
+        references.add(matcher.group(1));
+      }
+    }
+  }
+}
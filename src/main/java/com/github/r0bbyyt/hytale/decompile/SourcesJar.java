@@ -0,0 +1,43 @@
+package com.github.r0bbyyt.hytale.decompile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Assembles the sources JAR of a server JAR from the cached source units
+public final class SourcesJar {
+
+  // Fixed entry time, so the sources JAR is byte-identical for the same server JAR
+  private static final long ENTRY_TIME = 315532800000L;
+
+  private SourcesJar() {
+  }
+
+  // Returns the units without a cached source, those are left out of the JAR
+  public static List<String> write(ClassIndex index, DecompileCache cache, Path targetJar) throws IOException {
+    List<String> missing = new ArrayList<>();
+    try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(targetJar))) {
+      for (ClassIndex.Unit unit : index.units()) {
+        if (!cache.contains(unit.hash())) {
+          missing.add(unit.name());
+          continue;
+        }
+
+        ZipEntry entry = new ZipEntry(unit.name() + DecompileCache.SOURCE_EXTENSION);
+        entry.setTime(ENTRY_TIME);
+        zos.putNextEntry(entry);
+        try (InputStream is = cache.open(unit.hash())) {
+          is.transferTo(zos);
+        }
+        zos.closeEntry();
+        cache.touch(unit.hash());
+      }
+    }
+    return missing;
+  }
+}
@@ -1,15 +1,20 @@
 package com.github.r0bbyyt.hytale.intellij;
 
 import com.github.r0bbyyt.hytale.HytaleExtension;
+import com.github.r0bbyyt.hytale.HytalePlugin;
+import com.github.r0bbyyt.hytale.run.ServerArguments;
+import com.github.r0bbyyt.hytale.run.ServerInstance;
+import com.github.r0bbyyt.hytale.task.GenerateRunConfigurationTask;
 import com.github.r0bbyyt.hytale.util.Util;
 import org.gradle.api.Project;
-import org.gradle.api.plugins.ExtensionAware;
+import org.gradle.api.Task;
+import org.gradle.api.file.Directory;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.SourceSet;
-import org.gradle.api.tasks.SourceSetContainer;
-import org.gradle.plugins.ide.idea.IdeaPlugin;
+import org.gradle.api.tasks.TaskProvider;
 import org.gradle.plugins.ide.idea.model.IdeaModel;
 import org.jetbrains.gradle.ext.Application;
-import org.jetbrains.gradle.ext.IdeaExtPlugin;
+import org.jetbrains.gradle.ext.GradleTask;
 import org.jetbrains.gradle.ext.ProjectSettings;
 import org.jetbrains.gradle.ext.RunConfigurationContainer;
 
@@ -17,31 +22,112 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.util.ArrayList;
 import java.util.List;
 
 public class IdeaRunConfigurationSetup {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(IdeaRunConfigurationSetup.class);
   private static final String RUN_CONFIG_NAME = "Hytale Server";
-
-  private static final String ARG_ALLOW_OP = "--allow-op";
-  private static final String ARG_AUTH_MODE = "--auth-mode";
-  private static final String ARG_BIND = "--bind";
-  private static final String ARG_DISABLE_SENTRY = "--disable-sentry";
-  private static final String ARG_MODS = "--mods";
-  private static final String ARG_ASSETS = "--assets";
-  private static final String ASSETS_FILE = "Assets.zip";
-
-  public void configure(Project project, HytaleExtension extension) {
+  private static final String RUN_CONFIG_FILE_EXTENSION = ".xml";
+  private static final String MODULE_SUFFIX = ".main";
+
+  public void configure(
+    Project project,
+    HytaleExtension extension,
+    SourceSet mainSourceSet,
+    TaskProvider<? extends Task> prepareTask,
+    Provider<List<String>> jvmArgs
+  ) {
     LOGGER.info("Starting IDEA run configuration setup for project: {}", project.getName());
+    Provider<List<String>> programArgs = project.provider(() -> ServerArguments.build(extension, mainSourceSet));
+    this.configure(
+      project,
+      extension,
+      mainSourceSet,
+      RUN_CONFIG_NAME,
+      HytalePlugin.TASK_GENERATE_RUN_CONFIGURATION,
+      prepareTask,
+      extension.getWorkingDirectory(),
+      programArgs,
+      jvmArgs
+    );
+  }
+
+  // One more run configuration per server instance, named after it
+  public void configureInstance(
+    Project project,
+    HytaleExtension extension,
+    SourceSet mainSourceSet,
+    ServerInstance instance,
+    TaskProvider<? extends Task> prepareTask,
+    Provider<List<String>> programArgs,
+    Provider<List<String>> jvmArgs
+  ) {
+    String name = instance.getName();
+    this.configure(
+      project,
+      extension,
+      mainSourceSet,
+      RUN_CONFIG_NAME + " " + name,
+      HytalePlugin.TASK_GENERATE_RUN_CONFIGURATION + Character.toUpperCase(name.charAt(0)) + name.substring(1),
+      prepareTask,
+      instance.getWorkingDirectory(),
+      programArgs,
+      jvmArgs
+    );
+  }
 
-    // Run configurations must be created on the root project's IdeaModel
-    Project rootProject = project.getRootProject();
-    rootProject.getPlugins().apply(IdeaExtPlugin.class);
-    LOGGER.debug("Applied IdeaExtPlugin to root project: {}", rootProject.getName());
+  private void configure(
+    Project project,
+    HytaleExtension extension,
+    SourceSet mainSourceSet,
+    String configName,
+    String taskName,
+    TaskProvider<? extends Task> prepareTask,
+    Provider<Directory> workingDirectory,
+    Provider<List<String>> programArgs,
+    Provider<List<String>> jvmArgs
+  ) {
+    Provider<String> programParameters = programArgs.map(args -> String.join(" ", args));
+    Provider<String> vmParameters = jvmArgs.map(args -> String.join(" ", args));
+
+    // Only the root project owns the IdeaModel, other projects must not reach into it
+    if (project.getPath().equals(Project.PATH_SEPARATOR)) {
+      this.configureIdeaModel(
+        project,
+        extension,
+        mainSourceSet,
+        configName,
+        prepareTask,
+        workingDirectory,
+        programParameters,
+        vmParameters
+      );
+    } else {
+      this.configureRunConfigurationFile(
+        project,
+        extension,
+        configName,
+        taskName,
+        prepareTask,
+        workingDirectory,
+        programParameters,
+        vmParameters
+      );
+    }
+  }
 
-    IdeaModel ideaModel = rootProject.getExtensions().findByType(IdeaModel.class);
+  private void configureIdeaModel(
+    Project project,
+    HytaleExtension extension,
+    SourceSet mainSourceSet,
+    String configName,
+    TaskProvider<? extends Task> prepareTask,
+    Provider<Directory> workingDirectory,
+    Provider<String> programArgs,
+    Provider<String> vmParameters
+  ) {
+    IdeaModel ideaModel = project.getExtensions().findByType(IdeaModel.class);
     if (ideaModel == null) {
       LOGGER.warn("IdeaModel is null on root project - cannot create run configuration");
       return;
@@ -68,64 +154,65 @@ public class IdeaRunConfigurationSetup {
     }
     LOGGER.debug("Found RunConfigurationContainer: {}", runConfigurations);
 
-    try {
-      LOGGER.info("Creating run configuration '{}'", RUN_CONFIG_NAME);
-      runConfigurations.create(RUN_CONFIG_NAME, Application.class, config -> {
-        String mainClass = extension.getRunConfigMainClass().get();
-        LOGGER.debug("Setting mainClass: {}", mainClass);
-        config.setMainClass(mainClass);
-
-        File workingDir = extension.getWorkingDirectory().get().getAsFile();
-        workingDir.mkdirs();
-        LOGGER.debug("Setting workingDirectory: {}", workingDir.getAbsolutePath());
-        config.setWorkingDirectory(workingDir.getAbsolutePath());
-
-        SourceSet mainSourceSet = project.getExtensions()
-          .getByType(SourceSetContainer.class)
-          .getByName(SourceSet.MAIN_SOURCE_SET_NAME);
-        String programArgs = this.buildProgramArguments(extension, mainSourceSet);
-        LOGGER.debug("Setting programParameters: {}", programArgs);
-        config.setProgramParameters(programArgs);
-        config.moduleRef(project, mainSourceSet);
-
-        LOGGER.info("Successfully configured run configuration '{}'", RUN_CONFIG_NAME);
-      });
-    } catch (Exception e) {
-      LOGGER.error("Failed to create run configuration '{}': {}", RUN_CONFIG_NAME, e.getMessage(), e);
-    }
+    // Registered lazily, the extension is only read once the IDE asks for the run configurations
+    LOGGER.info("Registering run configuration '{}'", configName);
+    runConfigurations.register(configName, Application.class, config -> {
+      String mainClass = extension.getRunConfigMainClass().get();
+      LOGGER.debug("Setting mainClass: {}", mainClass);
+      config.setMainClass(mainClass);
+
+      File workingDir = workingDirectory.get().getAsFile();
+      LOGGER.debug("Setting workingDirectory: {}", workingDir.getAbsolutePath());
+      config.setWorkingDirectory(workingDir.getAbsolutePath());
+
+      String args = programArgs.get();
+      LOGGER.debug("Setting programParameters: {}", args);
+      config.setProgramParameters(args);
+      config.setJvmArgs(vmParameters.get());
+      config.moduleRef(project, mainSourceSet);
+      // The working directory is created or copied by Gradle right before each launch, never during the sync
+      config.getBeforeRun().register(prepareTask.getName(), GradleTask.class, task -> task.setTask(prepareTask.get()));
+
+      LOGGER.info("Successfully configured run configuration '{}'", configName);
+    });
   }
 
-  private String buildProgramArguments(HytaleExtension extension, SourceSet sourceSet) {
-    List<String> args = new ArrayList<>();
-
-    if (extension.getAllowOp().getOrElse(false)) {
-      args.add(ARG_ALLOW_OP);
-    }
-
-    if (extension.getAuthMode().isPresent()) {
-      args.add(ARG_AUTH_MODE);
-      args.add(extension.getAuthMode().get().getValue());
-    }
-
-    if (extension.getBindAddress().isPresent() && extension.getBindPort().isPresent()) {
-      args.add(ARG_BIND);
-      args.add(extension.getBindAddress().get() + ":" + extension.getBindPort().get());
-    }
-
-    if (extension.getDisableSentry().getOrElse(false)) {
-      args.add(ARG_DISABLE_SENTRY);
-    }
-
-    File assetsFile = extension.getInstallationPath().get().file(ASSETS_FILE).getAsFile();
-    args.add(ARG_ASSETS);
-    args.add(assetsFile.getAbsolutePath());
-
-    File resourceDir = sourceSet.getOutput().getResourcesDir();
-    if (resourceDir != null && resourceDir.exists()) {
-      args.add(ARG_MODS);
-      args.add(resourceDir.getAbsolutePath());
-    }
-
-    return String.join(" ", args);
+  private void configureRunConfigurationFile(
+    Project project,
+    HytaleExtension extension,
+    String name,
+    String taskName,
+    TaskProvider<? extends Task> prepareTask,
+    Provider<Directory> workingDirectory,
+    Provider<String> programArgs,
+    Provider<String> vmParameters
+  ) {
+    String rootName = project.getIsolated().getRootProject().getName();
+    String moduleName = rootName + project.getPath().replace(':', '.') + MODULE_SUFFIX;
+    String configName = name + " (" + project.getPath() + ")";
+    String fileName = configName.replaceAll("[^A-Za-z0-9]+", "_") + RUN_CONFIG_FILE_EXTENSION;
+    File rootDir = project.getIsolated().getRootProject().getProjectDirectory().getAsFile();
+
+    TaskProvider<GenerateRunConfigurationTask> generate = project.getTasks().register(
+      taskName,
+      GenerateRunConfigurationTask.class,
+      task -> {
+        task.setGroup(HytalePlugin.DEFAULT_GROUP);
+        task.setDescription("Generates the IntelliJ IDEA run configuration '" + name + "'");
+        task.getConfigurationName().set(configName);
+        task.getMainClass().set(extension.getRunConfigMainClass());
+        task.getModuleName().set(moduleName);
+        task.getBeforeLaunchTask().set(prepareTask.getName());
+        task.getExternalProjectPath().set(project.getProjectDir().getAbsolutePath());
+        task.getWorkingDirectory().set(workingDirectory.map(dir -> dir.getAsFile().getAbsolutePath()));
+        task.getProgramParameters().set(programArgs);
+        task.getVmParameters().set(vmParameters);
+        task.getOutputFile().set(new File(
+          rootDir,
+          GenerateRunConfigurationTask.RUN_CONFIGURATIONS_DIR + "/" + fileName
+        ));
+      }
+    );
+    project.getTasks().named(HytalePlugin.TASK_IDEA, task -> task.dependsOn(generate));
   }
 }
@@ -0,0 +1,194 @@
+package com.github.r0bbyyt.hytale.manifest;
+
+import com.github.r0bbyyt.hytale.manifest.json.ManifestJson;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+// Load order of a set of plugins identified by Group:Name. Dependencies, present optional dependencies and
+// sub-plugin parents load first, a plugin loads before the plugins it names in LoadBefore.
+public final class PluginGraph {
+
+  private final Map<String, Node> nodes = new TreeMap<>();
+  private final List<String> problems = new ArrayList<>();
+
+  public static String id(ManifestJson manifest) {
+    return manifest.group() + ":" + manifest.name();
+  }
+
+  // Globs over plugin IDs, * and ? match any characters
+  public static Predicate<String> matcher(List<String> globs) {
+    List<Pattern> patterns = new ArrayList<>();
+    for (String glob : globs) {
+      StringBuilder regex = new StringBuilder();
+      for (char c : glob.trim().toCharArray()) {
+        if (c == '*') {
+          regex.append(".*");
+        } else if (c == '?') {
+          regex.append('.');
+        } else {
+          regex.append(Pattern.quote(String.valueOf(c)));
+        }
+      }
+      patterns.add(Pattern.compile(regex.toString()));
+    }
+    return id -> patterns.stream().anyMatch(pattern -> pattern.matcher(id).matches());
+  }
+
+  // Adds the plugin and its sub-plugins, source names where the manifest came from for the problem reports
+  public void add(ManifestJson manifest, String source) {
+    this.add(manifest, source, null);
+  }
+
+  private void add(ManifestJson manifest, String source, String parent) {
+    String id = id(manifest);
+    Node existing = this.nodes.get(id);
+    if (existing != null) {
+      this.problems.add("Plugin " + id + " is defined by both " + existing.source() + " and " + source);
+      return;
+    }
+
+    this.nodes.put(id, new Node(id, manifest, source, parent));
+    for (ManifestJson subPlugin : manifest.subPlugins()) {
+      this.add(subPlugin, source, id);
+    }
+  }
+
+  public Result resolve(Predicate<String> provided) {
+    List<String> problems = new ArrayList<>(this.problems);
+    Map<String, Set<String>> successors = new HashMap<>();
+    Map<String, Integer> inDegree = new HashMap<>();
+    for (String id : this.nodes.keySet()) {
+      successors.put(id, new TreeSet<>());
+      inDegree.put(id, 0);
+    }
+
+    for (Node node : this.nodes.values()) {
+      ManifestJson manifest = node.manifest();
+      if (node.parent() != null) {
+        edge(successors, inDegree, node.parent(), node.id());
+      }
+
+      for (Map.Entry<String, String> dependency : manifest.dependencies().entrySet()) {
+        Node target = this.nodes.get(dependency.getKey());
+        if (target == null) {
+          if (!provided.test(dependency.getKey())) {
+            problems.add(node.id() + " requires " + dependency.getKey() + " " + dependency.getValue()
+                         + ", which is neither in the build, the mods nor provided by the server");
+          }
+          continue;
+        }
+        this.checkVersion(problems, node, target, dependency.getValue());
+        edge(successors, inDegree, target.id(), node.id());
+      }
+
+      for (Map.Entry<String, String> dependency : manifest.optionalDependencies().entrySet()) {
+        Node target = this.nodes.get(dependency.getKey());
+        if (target != null) {
+          this.checkVersion(problems, node, target, dependency.getValue());
+          edge(successors, inDegree, target.id(), node.id());
+        }
+      }
+
+      for (String before : manifest.loadBefore().keySet()) {
+        if (this.nodes.containsKey(before)) {
+          edge(successors, inDegree, node.id(), before);
+        }
+      }
+    }
+
+    // Kahn's algorithm, ready plugins are taken in ID order so the result does not depend on the input order
+    List<String> loadOrder = new ArrayList<>();
+    TreeSet<String> ready = new TreeSet<>();
+    inDegree.forEach((id, degree) -> {
+      if (degree == 0) {
+        ready.add(id);
+      }
+    });
+    while (!ready.isEmpty()) {
+      String id = ready.pollFirst();
+      loadOrder.add(id);
+      for (String successor : successors.get(id)) {
+        if (inDegree.merge(successor, -1, Integer::sum) == 0) {
+          ready.add(successor);
+        }
+      }
+    }
+
+    if (loadOrder.size() < this.nodes.size()) {
+      Set<String> remaining = new TreeSet<>(this.nodes.keySet());
+      loadOrder.forEach(remaining::remove);
+      problems.add("Load order cycle: " + String.join(" -> ", findCycle(successors, remaining)));
+    }
+    return new Result(loadOrder, problems);
+  }
+
+  public String version(String id) {
+    return this.nodes.get(id).manifest().version();
+  }
+
+  public String source(String id) {
+    return this.nodes.get(id).source();
+  }
+
+  private void checkVersion(List<String> problems, Node node, Node target, String range) {
+    VersionRange versionRange;
+    try {
+      versionRange = VersionRange.parse(range);
+    } catch (IllegalArgumentException e) {
+      problems.add(node.id() + " has an invalid version range for " + target.id() + ": " + e.getMessage());
+      return;
+    }
+    if (!versionRange.contains(target.manifest().version())) {
+      problems.add(node.id() + " requires " + target.id() + " " + range + ", but " + target.source() + " has "
+                   + target.manifest().version());
+    }
+  }
+
+  private static void edge(
+    Map<String, Set<String>> successors,
+    Map<String, Integer> inDegree,
+    String from,
+    String to
+  ) {
+    if (successors.get(from).add(to)) {
+      inDegree.merge(to, 1, Integer::sum);
+    }
+  }
+
+  // Every plugin left over by Kahn's algorithm still waits for another leftover, so following those predecessors
+  // must run into a cycle. Returned in load direction, each plugin has to load before the next one.
+  private static List<String> findCycle(Map<String, Set<String>> successors, Set<String> remaining) {
+    Map<String, String> predecessors = new HashMap<>();
+    for (String id : remaining) {
+      for (String successor : successors.get(id)) {
+        if (remaining.contains(successor)) {
+          predecessors.putIfAbsent(successor, id);
+        }
+      }
+    }
+
+    List<String> path = new ArrayList<>();
+    String current = remaining.iterator().next();
+    while (!path.contains(current)) {
+      path.add(current);
+      current = predecessors.get(current);
+    }
+    List<String> cycle = new ArrayList<>(path.subList(path.indexOf(current), path.size()));
+    cycle.add(current);
+    return cycle.reversed();
+  }
+
+  public record Result(List<String> loadOrder, List<String> problems) {
+  }
+
+  private record Node(String id, ManifestJson manifest, String source, String parent) {
+  }
+}
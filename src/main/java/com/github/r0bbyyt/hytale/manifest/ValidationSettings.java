@@ -0,0 +1,27 @@
+package com.github.r0bbyyt.hytale.manifest;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.ListProperty;
+
+import java.util.List;
+
+// What validateHytalePlugins resolves the plugins of this project against
+public abstract class ValidationSettings {
+
+  // Plugins that ship with the server and are never part of the mods
+  public static final List<String> DEFAULT_PROVIDED_PLUGINS = List.of("Hytale:*");
+
+  public ValidationSettings() {
+    this.getProvidedPlugins().convention(DEFAULT_PROVIDED_PLUGINS);
+  }
+
+  // The JARs in it are loaded next to the plugins of this project, like the mods directory of a server
+  public abstract DirectoryProperty getModsDirectory();
+
+  // Globs over Group:Name, dependencies on them are satisfied without a manifest
+  public abstract ListProperty<String> getProvidedPlugins();
+
+  public void provided(String... patterns) {
+    this.getProvidedPlugins().addAll(patterns);
+  }
+}
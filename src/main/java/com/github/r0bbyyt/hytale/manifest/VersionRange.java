@@ -0,0 +1,180 @@
+package com.github.r0bbyyt.hytale.manifest;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+// Semantic version ranges of manifest dependencies: *, exact versions, comparisons like >=1.2.0 <2.0.0,
+// caret and tilde ranges, and alternatives separated by ||
+public final class VersionRange {
+
+  public static final String ANY = "*";
+
+  private static final List<String> COMPARISONS = List.of(">=", "<=", ">", "<", "=");
+  private static final List<String> OPERATORS = List.of(">=", "<=", ">", "<", "=", "^", "~");
+
+  private final String text;
+  private final List<List<Comparator>> alternatives;
+
+  private VersionRange(String text, List<List<Comparator>> alternatives) {
+    this.text = text;
+    this.alternatives = alternatives;
+  }
+
+  // An operator followed by whitespace applies to the next version, like >= 1.2.0
+  public static VersionRange parse(String text) {
+    List<List<Comparator>> alternatives = new ArrayList<>();
+    for (String alternative : text.split("\\|\\|")) {
+      List<Comparator> comparators = new ArrayList<>();
+      String[] parts = alternative.trim().split("\\s+");
+      for (int i = 0; i < parts.length; i++) {
+        String part = parts[i];
+        if (OPERATORS.contains(part)) {
+          if (i + 1 == parts.length) {
+            throw new IllegalArgumentException("Version range '" + text + "' ends with the operator " + part);
+          }
+          part += parts[++i];
+        }
+        if (!part.isEmpty() && !part.equals(ANY)) {
+          comparators.addAll(comparators(part));
+        }
+      }
+      alternatives.add(comparators);
+    }
+    return new VersionRange(text, alternatives);
+  }
+
+  public boolean contains(String version) {
+    for (List<Comparator> comparators : this.alternatives) {
+      if (comparators.stream().allMatch(comparator -> comparator.test(version))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return this.text;
+  }
+
+  private static List<Comparator> comparators(String part) {
+    for (String operator : COMPARISONS) {
+      if (part.startsWith(operator)) {
+        return List.of(new Comparator(operator, part.substring(operator.length())));
+      }
+    }
+
+    if (part.startsWith("^") || part.startsWith("~")) {
+      String version = part.substring(1);
+      int[] numbers = numbers(version);
+      // ^ keeps the first non-zero component, ~ the minor version
+      int fixed = part.charAt(0) == '~' ? Math.min(1, numbers.length - 1) : firstNonZero(numbers);
+      return List.of(new Comparator(">=", version), new Comparator("<", bump(numbers, fixed)));
+    }
+    return List.of(new Comparator("=", part));
+  }
+
+  private static int firstNonZero(int[] numbers) {
+    for (int i = 0; i < numbers.length - 1; i++) {
+      if (numbers[i] != 0) {
+        return i;
+      }
+    }
+    return numbers.length - 1;
+  }
+
+  private static String bump(int[] numbers, int index) {
+    StringBuilder version = new StringBuilder();
+    for (int i = 0; i <= index; i++) {
+      version.append(i == 0 ? "" : ".").append(i == index ? numbers[i] + 1 : numbers[i]);
+    }
+    return version.toString();
+  }
+
+  private static int[] numbers(String version) {
+    String release = release(version);
+    String[] parts = release.split("\\.");
+    int[] numbers = new int[parts.length];
+    for (int i = 0; i < parts.length; i++) {
+      numbers[i] = isNumeric(parts[i]) ? Integer.parseInt(parts[i]) : 0;
+    }
+    return numbers;
+  }
+
+  private static String release(String version) {
+    int separator = version.indexOf('-');
+    int build = version.indexOf('+');
+    int end = version.length();
+    if (separator >= 0) {
+      end = separator;
+    }
+    if (build >= 0 && build < end) {
+      end = build;
+    }
+    return version.substring(0, end);
+  }
+
+  // Numeric components first with missing ones counting as zero, a pre-release sorts before its release
+  public static int compare(String left, String right) {
+    int[] a = numbers(left);
+    int[] b = numbers(right);
+    for (int i = 0; i < Math.max(a.length, b.length); i++) {
+      int result = Integer.compare(i < a.length ? a[i] : 0, i < b.length ? b[i] : 0);
+      if (result != 0) {
+        return result;
+      }
+    }
+
+    String preLeft = preRelease(left);
+    String preRight = preRelease(right);
+    if (preLeft.isEmpty() || preRight.isEmpty()) {
+      return Boolean.compare(preLeft.isEmpty(), preRight.isEmpty());
+    }
+    return comparePreRelease(preLeft.split("\\."), preRight.split("\\."));
+  }
+
+  // Numeric identifiers compare as numbers and sort before alphanumeric ones, a shorter prefix sorts first
+  private static int comparePreRelease(String[] left, String[] right) {
+    for (int i = 0; i < Math.min(left.length, right.length); i++) {
+      boolean leftNumeric = isNumeric(left[i]);
+      boolean rightNumeric = isNumeric(right[i]);
+      int result;
+      if (leftNumeric && rightNumeric) {
+        result = new BigInteger(left[i]).compareTo(new BigInteger(right[i]));
+      } else if (leftNumeric || rightNumeric) {
+        result = leftNumeric ? -1 : 1;
+      } else {
+        result = left[i].compareTo(right[i]);
+      }
+      if (result != 0) {
+        return result;
+      }
+    }
+    return Integer.compare(left.length, right.length);
+  }
+
+  private static boolean isNumeric(String value) {
+    return !value.isEmpty() && value.chars().allMatch(Character::isDigit);
+  }
+
+  private static String preRelease(String version) {
+    String withoutBuild = version.contains("+") ? version.substring(0, version.indexOf('+')) : version;
+    int separator = withoutBuild.indexOf('-');
+    return separator >= 0 ? withoutBuild.substring(separator + 1) : "";
+  }
+
+  private record Comparator(String operator, String version) {
+
+    boolean test(String candidate) {
+      int result = compare(candidate, this.version);
+      return switch (this.operator) {
+        case ">=" -> result >= 0;
+        case "<=" -> result <= 0;
+        case ">" -> result > 0;
+        case "<" -> result < 0;
+        default -> result == 0;
+      };
+    }
+  }
+}
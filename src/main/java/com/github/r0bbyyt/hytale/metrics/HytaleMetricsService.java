@@ -0,0 +1,104 @@
+package com.github.r0bbyyt.hytale.metrics;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Collects the phase timings of the plugin tasks and writes them as JSON once the build finishes
+public abstract class HytaleMetricsService implements BuildService<HytaleMetricsService.Parameters>, AutoCloseable {
+
+  public static final String NAME = "hytaleMetrics";
+  public static final String REPORT_FILE = "reports/hytale/metrics.json";
+
+  public static final String PHASE_CHECKSUM = "checksum";
+  public static final String PHASE_PUBLISH_JAR = "publishJar";
+  public static final String PHASE_WRITE_POM = "writePom";
+  public static final String PHASE_INDEX = "indexClasses";
+  public static final String PHASE_DECOMPILE = "decompile";
+  public static final String PHASE_SOURCES_JAR = "sourcesJar";
+  public static final String PHASE_EVICTION = "eviction";
+  public static final String PHASE_MANIFEST = "manifest";
+  public static final String PHASE_CDS_TRAINING = "cdsTraining";
+  public static final String PHASE_BUNDLE_JAR = "bundleJar";
+  public static final String PHASE_SERVER_PACK = "serverPack";
+  public static final String PHASE_VALIDATE_PLUGINS = "validatePlugins";
+  public static final String PHASE_API_INDEX = "apiIndex";
+  public static final String PHASE_API_CHECK = "apiCheck";
+
+  private final List<PhaseMetrics> phases = new ArrayList<>();
+
+  public Phase start(String task, String phase) {
+    return new Phase(task, phase, System.nanoTime());
+  }
+
+  public synchronized void record(PhaseMetrics metrics) {
+    this.phases.add(metrics);
+  }
+
+  @Override
+  public synchronized void close() {
+    if (this.phases.isEmpty()) {
+      return;
+    }
+
+    Path reportFile = this.getParameters().getReportFile().get().getAsFile().toPath();
+    Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    try {
+      Files.createDirectories(reportFile.getParent());
+      try (BufferedWriter writer = Files.newBufferedWriter(reportFile)) {
+        gson.toJson(new Report(this.phases), writer);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to write the Hytale metrics report", e);
+    }
+  }
+
+  public interface Parameters extends BuildServiceParameters {
+    RegularFileProperty getReportFile();
+  }
+
+  private record Report(List<PhaseMetrics> phases) {
+  }
+
+  // Recorded when closed, bytes and entries are whatever the phase reports before that
+  public final class Phase implements AutoCloseable {
+
+    private final String task;
+    private final String name;
+    private final long startNanos;
+    private long bytes;
+    private long entries;
+
+    private Phase(String task, String name, long startNanos) {
+      this.task = task;
+      this.name = name;
+      this.startNanos = startNanos;
+    }
+
+    public Phase bytes(long bytes) {
+      this.bytes = bytes;
+      return this;
+    }
+
+    public Phase entries(long entries) {
+      this.entries = entries;
+      return this;
+    }
+
+    @Override
+    public void close() {
+      long durationMillis = (System.nanoTime() - this.startNanos) / 1_000_000L;
+      HytaleMetricsService.this.record(new PhaseMetrics(this.task, this.name, durationMillis, this.bytes, this.entries));
+    }
+  }
+}
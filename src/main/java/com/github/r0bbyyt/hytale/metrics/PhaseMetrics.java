@@ -0,0 +1,4 @@
+package com.github.r0bbyyt.hytale.metrics;
+
+public record PhaseMetrics(String task, String phase, long durationMillis, long bytes, long entries) {
+}
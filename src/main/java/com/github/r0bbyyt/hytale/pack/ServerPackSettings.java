@@ -0,0 +1,21 @@
+package com.github.r0bbyyt.hytale.pack;
+
+import org.gradle.api.file.ConfigurableFileCollection;
+
+// What hytaleServerPack stages next to the server JAR and the assets of the installation
+public abstract class ServerPackSettings {
+
+  // Plugin JARs placed in the mods directory, the hytaleJar output of this project is always part of it
+  public abstract ConfigurableFileCollection getMods();
+
+  // Directories whose content is placed at the root of the pack, like server configs
+  public abstract ConfigurableFileCollection getConfigs();
+
+  public void mods(Object... paths) {
+    this.getMods().from(paths);
+  }
+
+  public void configs(Object... paths) {
+    this.getConfigs().from(paths);
+  }
+}
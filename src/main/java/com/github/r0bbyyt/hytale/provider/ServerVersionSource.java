@@ -0,0 +1,56 @@
+package com.github.r0bbyyt.hytale.provider;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ValueSource;
+import org.gradle.api.provider.ValueSourceParameters;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+// Reads the server version from the JAR manifest at configuration time, re-checked on configuration cache reuse
+public abstract class ServerVersionSource implements ValueSource<String, ServerVersionSource.Parameters> {
+
+  public static final String MANIFEST_VERSION_ATTRIBUTE = "Implementation-Version";
+
+  public static String readVersion(File serverJar) throws IOException {
+    if (!serverJar.isFile()) {
+      throw new GradleException("Server JAR not found at: " + serverJar);
+    }
+
+    try (JarFile jarFile = new JarFile(serverJar, false)) {
+      Manifest manifest = jarFile.getManifest();
+      if (manifest == null) {
+        throw new GradleException("No manifest found in server JAR");
+      }
+
+      String version = manifest.getMainAttributes().getValue(MANIFEST_VERSION_ATTRIBUTE);
+      if (version == null || version.isBlank()) {
+        throw new GradleException("No " + MANIFEST_VERSION_ATTRIBUTE + " found in server JAR manifest");
+      }
+
+      return version.trim();
+    }
+  }
+
+  @Override
+  public String obtain() {
+    RegularFileProperty serverJar = this.getParameters().getServerJar();
+    if (!serverJar.isPresent()) {
+      throw new GradleException("hytale.installationPath must be set to resolve the server version");
+    }
+
+    try {
+      return readVersion(serverJar.get().getAsFile());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read the server version", e);
+    }
+  }
+
+  public interface Parameters extends ValueSourceParameters {
+    RegularFileProperty getServerJar();
+  }
+}
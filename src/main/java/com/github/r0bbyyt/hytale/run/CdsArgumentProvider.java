@@ -0,0 +1,50 @@
+package com.github.r0bbyyt.hytale.run;
+
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.process.CommandLineArgumentProvider;
+
+import java.io.File;
+import java.util.List;
+
+// Starts the server JVM from the class data sharing archive once hytaleCdsArchive created it
+public class CdsArgumentProvider implements CommandLineArgumentProvider {
+
+  private final Provider<Boolean> enabled;
+  private final Provider<RegularFile> archive;
+  private final Provider<JavaLauncher> launcher;
+
+  public CdsArgumentProvider(Provider<Boolean> enabled, Provider<RegularFile> archive, Provider<JavaLauncher> launcher) {
+    this.enabled = enabled;
+    this.archive = archive;
+    this.launcher = launcher;
+  }
+
+  @Input
+  public Provider<Boolean> getEnabled() {
+    return this.enabled;
+  }
+
+  // Changes with every training run, which must not make the server task out of date
+  @Internal
+  public Provider<RegularFile> getArchive() {
+    return this.archive;
+  }
+
+  @Internal
+  public Provider<JavaLauncher> getLauncher() {
+    return this.launcher;
+  }
+
+  @Override
+  public Iterable<String> asArguments() {
+    File archive = this.archive.get().getAsFile();
+    if (!this.enabled.get() || !archive.isFile()) {
+      return List.of();
+    }
+    return CdsArguments.runtime(this.launcher.get().getMetadata().getLanguageVersion().asInt(), archive);
+  }
+}
@@ -0,0 +1,40 @@
+package com.github.r0bbyyt.hytale.run;
+
+import java.io.File;
+import java.util.List;
+
+// JVM flags of the class data sharing archive, the AOT cache of Java 25 or a dynamic AppCDS archive before that
+public final class CdsArguments {
+
+  public static final int AOT_CACHE_VERSION = 25;
+  public static final int DYNAMIC_ARCHIVE_VERSION = 13;
+  public static final String AOT_CACHE_FILE = "hytale/server.aot";
+  public static final String DYNAMIC_ARCHIVE_FILE = "hytale/server.jsa";
+
+  private CdsArguments() {
+  }
+
+  public static boolean isSupported(int javaVersion) {
+    return javaVersion >= DYNAMIC_ARCHIVE_VERSION;
+  }
+
+  public static String archiveFile(int javaVersion) {
+    return javaVersion >= AOT_CACHE_VERSION ? AOT_CACHE_FILE : DYNAMIC_ARCHIVE_FILE;
+  }
+
+  // Written by the training run when the JVM exits
+  public static List<String> training(int javaVersion, File archive) {
+    if (javaVersion >= AOT_CACHE_VERSION) {
+      return List.of("-XX:AOTCacheOutput=" + archive.getAbsolutePath());
+    }
+    return isSupported(javaVersion) ? List.of("-XX:ArchiveClassesAtExit=" + archive.getAbsolutePath()) : List.of();
+  }
+
+  // A missing or outdated archive is only reported by the JVM, the server still starts
+  public static List<String> runtime(int javaVersion, File archive) {
+    if (javaVersion >= AOT_CACHE_VERSION) {
+      return List.of("-XX:AOTCache=" + archive.getAbsolutePath());
+    }
+    return isSupported(javaVersion) ? List.of("-XX:SharedArchiveFile=" + archive.getAbsolutePath()) : List.of();
+  }
+}
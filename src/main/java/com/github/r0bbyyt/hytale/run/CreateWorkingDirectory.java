@@ -0,0 +1,21 @@
+package com.github.r0bbyyt.hytale.run;
+
+import org.gradle.api.Action;
+import org.gradle.api.Task;
+import org.gradle.api.file.Directory;
+import org.gradle.api.provider.Provider;
+
+// JavaExec refuses to start in a directory that does not exist yet
+public class CreateWorkingDirectory implements Action<Task> {
+
+  private final Provider<Directory> directory;
+
+  public CreateWorkingDirectory(Provider<Directory> directory) {
+    this.directory = directory;
+  }
+
+  @Override
+  public void execute(Task task) {
+    this.directory.get().getAsFile().mkdirs();
+  }
+}
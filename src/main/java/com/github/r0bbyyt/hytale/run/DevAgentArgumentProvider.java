@@ -0,0 +1,62 @@
+package com.github.r0bbyyt.hytale.run;
+
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.process.CommandLineArgumentProvider;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+// Attaches the hot reload agent to the server JVM, watching the given class directories
+public class DevAgentArgumentProvider implements CommandLineArgumentProvider {
+
+  public static final String JAVA_AGENT_ARG = "-javaagent:";
+
+  private final Provider<Boolean> enabled;
+  private final Provider<RegularFile> agentJar;
+  private final FileCollection classesDirs;
+
+  public DevAgentArgumentProvider(Provider<Boolean> enabled, Provider<RegularFile> agentJar, FileCollection classesDirs) {
+    this.enabled = enabled;
+    this.agentJar = agentJar;
+    this.classesDirs = classesDirs;
+  }
+
+  @Input
+  public Provider<Boolean> getEnabled() {
+    return this.enabled;
+  }
+
+  @InputFile
+  @PathSensitive(PathSensitivity.NONE)
+  public Provider<RegularFile> getAgentJar() {
+    return this.agentJar;
+  }
+
+  // Already part of the runtime classpath of the server
+  @Internal
+  public FileCollection getClassesDirs() {
+    return this.classesDirs;
+  }
+
+  @Override
+  public Iterable<String> asArguments() {
+    if (!this.enabled.get()) {
+      return List.of();
+    }
+
+    List<String> directories = new ArrayList<>();
+    for (File directory : this.classesDirs.getFiles()) {
+      directories.add(directory.getAbsolutePath());
+    }
+    return List.of(JAVA_AGENT_ARG + this.agentJar.get().getAsFile().getAbsolutePath()
+                   + "=" + String.join(File.pathSeparator, directories));
+  }
+}
@@ -0,0 +1,68 @@
+package com.github.r0bbyyt.hytale.run;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Turns the JVM settings into VM options for the Java version the server runs on
+public final class JvmArguments {
+
+  // Generational ZGC is opt-in before 23 and the only mode from 24 on, where the flag is obsolete
+  public static final int ZGC_GENERATIONAL_VERSION = 21;
+  public static final int ZGC_GENERATIONAL_DEFAULT_VERSION = 23;
+  // Experimental in 24, a product option from 25 on
+  public static final int COMPACT_HEADERS_VERSION = 24;
+  public static final int COMPACT_HEADERS_PRODUCT_VERSION = 25;
+
+  private JvmArguments() {
+  }
+
+  public static List<String> build(JvmSettings settings, int javaVersion) {
+    List<String> args = new ArrayList<>();
+    JvmSettings.Profile profile = settings.getProfile().getOrNull();
+
+    JvmSettings.GarbageCollector gc = settings.getGc().isPresent() ? settings.getGc().get() : defaultCollector(profile);
+    if (gc != null) {
+      args.add(gc.getFlag());
+      if (gc == JvmSettings.GarbageCollector.ZGC
+          && javaVersion >= ZGC_GENERATIONAL_VERSION
+          && javaVersion < ZGC_GENERATIONAL_DEFAULT_VERSION) {
+        args.add("-XX:+ZGenerational");
+      }
+    }
+
+    boolean fixedHeap = profile == JvmSettings.Profile.LOW_LATENCY || profile == JvmSettings.Profile.THROUGHPUT;
+    if (settings.getHeap().isPresent()) {
+      String heap = settings.getHeap().get();
+      if (fixedHeap) {
+        args.add("-Xms" + heap);
+      }
+      args.add("-Xmx" + heap);
+    }
+    if (fixedHeap) {
+      args.add("-XX:+AlwaysPreTouch");
+    }
+
+    if (profile == JvmSettings.Profile.MEMORY_SAVER) {
+      if (javaVersion >= COMPACT_HEADERS_VERSION) {
+        if (javaVersion < COMPACT_HEADERS_PRODUCT_VERSION) {
+          args.add("-XX:+UnlockExperimentalVMOptions");
+        }
+        args.add("-XX:+UseCompactObjectHeaders");
+      }
+      args.add("-XX:+UseStringDeduplication");
+    }
+
+    args.addAll(settings.getExtraArgs().get());
+    return args;
+  }
+
+  private static JvmSettings.GarbageCollector defaultCollector(JvmSettings.Profile profile) {
+    if (profile == null) {
+      return null;
+    }
+    return switch (profile) {
+      case LOW_LATENCY -> JvmSettings.GarbageCollector.ZGC;
+      case THROUGHPUT, MEMORY_SAVER -> JvmSettings.GarbageCollector.G1;
+    };
+  }
+}
@@ -0,0 +1,56 @@
+package com.github.r0bbyyt.hytale.run;
+
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+
+import java.util.List;
+
+// VM options of the dev server, shared by the IDE run configuration, runServer and the class data sharing training
+public abstract class JvmSettings {
+
+  public JvmSettings() {
+    this.getExtraArgs().convention(List.of());
+  }
+
+  // Optional, the JVM defaults apply without a profile
+  public abstract Property<Profile> getProfile();
+
+  // Maximum heap in JVM notation like 4g, profiles that pre-touch the heap also use it as initial size
+  public abstract Property<String> getHeap();
+
+  // Overrides the collector of the profile
+  public abstract Property<GarbageCollector> getGc();
+
+  // Appended last, so they win over the flags of the profile
+  public abstract ListProperty<String> getExtraArgs();
+
+  public void extraArgs(String... args) {
+    this.getExtraArgs().addAll(args);
+  }
+
+  public enum Profile {
+    // Generational ZGC with a pre-touched fixed heap, keeps pauses out of the tick
+    LOW_LATENCY,
+    // G1 with a pre-touched fixed heap
+    THROUGHPUT,
+    // G1 with compact object headers and string deduplication, the heap grows on demand
+    MEMORY_SAVER
+  }
+
+  public enum GarbageCollector {
+    G1("-XX:+UseG1GC"),
+    ZGC("-XX:+UseZGC"),
+    PARALLEL("-XX:+UseParallelGC"),
+    SERIAL("-XX:+UseSerialGC");
+
+    private final String flag;
+
+    GarbageCollector(String flag) {
+      this.flag = flag;
+    }
+
+    public String getFlag() {
+      return this.flag;
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package com.github.r0bbyyt.hytale.run;
+
+import org.gradle.api.Action;
+import org.gradle.api.Task;
+import org.gradle.api.file.Directory;
+import org.gradle.api.provider.Provider;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.stream.Stream;
+
+// Copies the main working directory into the directory of a server instance on its first start.
+// Later starts keep the state of the instance, deleting the directory starts it over.
+public class PrepareInstanceDirectory implements Action<Task> {
+
+  private final Provider<Directory> template;
+  private final Provider<Directory> directory;
+
+  public PrepareInstanceDirectory(Provider<Directory> template, Provider<Directory> directory) {
+    this.template = template;
+    this.directory = directory;
+  }
+
+  @Override
+  public void execute(Task task) {
+    prepare(this.template.get().getAsFile().toPath(), this.directory.get().getAsFile().toPath());
+  }
+
+  public static void prepare(Path template, Path directory) {
+    try {
+      if (Files.isDirectory(directory)) {
+        return;
+      }
+      if (!Files.isDirectory(template)) {
+        Files.createDirectories(directory);
+        return;
+      }
+
+      // Copied next to the target and moved, an interrupted copy must not count as prepared
+      Path parent = Files.createDirectories(directory.toAbsolutePath().getParent());
+      Path staging = Files.createTempDirectory(parent, directory.getFileName() + ".");
+      try (Stream<Path> files = Files.walk(template)) {
+        for (Path file : (Iterable<Path>) files::iterator) {
+          // Instance directories may live inside the main working directory
+          if (file.startsWith(directory) || file.startsWith(staging)) {
+            continue;
+          }
+
+          Path target = staging.resolve(template.relativize(file).toString());
+          if (Files.isDirectory(file)) {
+            Files.createDirectories(target);
+          } else {
+            Files.copy(file, target, StandardCopyOption.COPY_ATTRIBUTES);
+          }
+        }
+      }
+      Files.move(staging, directory, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to prepare the server directory " + directory, e);
+    }
+  }
+}
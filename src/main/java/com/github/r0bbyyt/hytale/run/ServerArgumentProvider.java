@@ -0,0 +1,26 @@
+package com.github.r0bbyyt.hytale.run;
+
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.Input;
+import org.gradle.process.CommandLineArgumentProvider;
+
+import java.util.List;
+
+public class ServerArgumentProvider implements CommandLineArgumentProvider {
+
+  private final Provider<List<String>> arguments;
+
+  public ServerArgumentProvider(Provider<List<String>> arguments) {
+    this.arguments = arguments;
+  }
+
+  @Input
+  public Provider<List<String>> getArguments() {
+    return this.arguments;
+  }
+
+  @Override
+  public Iterable<String> asArguments() {
+    return this.arguments.get();
+  }
+}
@@ -0,0 +1,63 @@
+package com.github.r0bbyyt.hytale.run;
+
+import com.github.r0bbyyt.hytale.HytaleExtension;
+import org.gradle.api.tasks.SourceSet;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+// Program arguments of the Hytale server, shared by the IDE run configuration and the runServer task
+public final class ServerArguments {
+
+  public static final String ARG_ALLOW_OP = "--allow-op";
+  public static final String ARG_AUTH_MODE = "--auth-mode";
+  public static final String ARG_BIND = "--bind";
+  public static final String ARG_DISABLE_SENTRY = "--disable-sentry";
+  public static final String ARG_MODS = "--mods";
+  public static final String ARG_ASSETS = "--assets";
+  public static final String ASSETS_FILE = "Assets.zip";
+
+  private ServerArguments() {
+  }
+
+  public static List<String> build(HytaleExtension extension, SourceSet sourceSet) {
+    return build(extension, sourceSet, extension.getBindPort().getOrNull());
+  }
+
+  // Server instances bind to their own port
+  public static List<String> build(HytaleExtension extension, SourceSet sourceSet, Integer bindPort) {
+    List<String> args = new ArrayList<>();
+
+    if (extension.getAllowOp().getOrElse(false)) {
+      args.add(ARG_ALLOW_OP);
+    }
+
+    if (extension.getAuthMode().isPresent()) {
+      args.add(ARG_AUTH_MODE);
+      args.add(extension.getAuthMode().get().getValue());
+    }
+
+    if (extension.getBindAddress().isPresent() && bindPort != null) {
+      args.add(ARG_BIND);
+      args.add(extension.getBindAddress().get() + ":" + bindPort);
+    }
+
+    if (extension.getDisableSentry().getOrElse(false)) {
+      args.add(ARG_DISABLE_SENTRY);
+    }
+
+    File assetsFile = extension.getInstallationPath().get().file(ASSETS_FILE).getAsFile();
+    args.add(ARG_ASSETS);
+    args.add(assetsFile.getAbsolutePath());
+
+    // Built before the server is launched, by the IDE or the runServer task, so the directory exists by then
+    File resourceDir = sourceSet.getOutput().getResourcesDir();
+    if (resourceDir != null) {
+      args.add(ARG_MODS);
+      args.add(resourceDir.getAbsolutePath());
+    }
+
+    return args;
+  }
+}
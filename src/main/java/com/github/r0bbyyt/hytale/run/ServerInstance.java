@@ -0,0 +1,39 @@
+package com.github.r0bbyyt.hytale.run;
+
+import org.gradle.api.Action;
+import org.gradle.api.Named;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Nested;
+
+import javax.inject.Inject;
+
+// An additional dev server with its own port, working directory and JVM settings, e.g. for soak tests
+public abstract class ServerInstance implements Named {
+
+  private final String name;
+
+  @Inject
+  public ServerInstance(String name) {
+    this.name = name;
+  }
+
+  @Override
+  public String getName() {
+    return this.name;
+  }
+
+  // Assigned after the bind port of the main server in creation order unless set
+  public abstract Property<Integer> getPort();
+
+  // Starts as a copy of the main working directory, including its worlds
+  public abstract DirectoryProperty getWorkingDirectory();
+
+  // Falls back to the settings of the main server
+  @Nested
+  public abstract JvmSettings getJvm();
+
+  public void jvm(Action<? super JvmSettings> action) {
+    action.execute(this.getJvm());
+  }
+}
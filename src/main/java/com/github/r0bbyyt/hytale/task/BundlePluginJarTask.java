@@ -0,0 +1,251 @@
+package com.github.r0bbyyt.hytale.task;
+
+import com.github.r0bbyyt.hytale.bundle.ClassShrinker;
+import com.github.r0bbyyt.hytale.bundle.DeterministicJarWriter;
+import com.github.r0bbyyt.hytale.decompile.ClassFilter;
+import com.github.r0bbyyt.hytale.metrics.HytaleMetricsService;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.SetProperty;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Packs the compiled plugin, its resources with manifest and asset pack, and the shaded libraries into one JAR
+@CacheableTask
+public abstract class BundlePluginJarTask extends DefaultTask {
+
+  public static final String SERVICES_PREFIX = "META-INF/services/";
+  private static final String MODULE_INFO = "module-info.class";
+  private static final Set<String> SIGNATURE_EXTENSIONS = Set.of(".SF", ".RSA", ".DSA", ".EC");
+
+  // Class and resource directories of the plugin, always packed completely
+  @InputFiles
+  @PathSensitive(PathSensitivity.RELATIVE)
+  public abstract ConfigurableFileCollection getContents();
+
+  @Classpath
+  public abstract ConfigurableFileCollection getLibraries();
+
+  // Main classes of the plugins and sub-plugins in the manifest
+  @Input
+  public abstract ListProperty<String> getEntryPoints();
+
+  @Input
+  public abstract Property<Boolean> getShrink();
+
+  @Input
+  public abstract ListProperty<String> getKeep();
+
+  @Input
+  public abstract Property<Integer> getCompressionLevel();
+
+  @Input
+  public abstract SetProperty<String> getStoredExtensions();
+
+  @Internal
+  public abstract Property<HytaleMetricsService> getMetricsService();
+
+  @OutputFile
+  public abstract RegularFileProperty getArchiveFile();
+
+  @TaskAction
+  public void bundle() throws IOException {
+    var logger = this.getLogger();
+    SortedMap<String, byte[]> entries = new TreeMap<>();
+    Set<String> pluginClasses = new HashSet<>();
+    for (File directory : this.getContents().getFiles()) {
+      this.addDirectory(directory.toPath(), entries, pluginClasses);
+    }
+
+    SortedMap<String, byte[]> libraryEntries = new TreeMap<>();
+    Map<String, Set<String>> services = new TreeMap<>();
+    for (File library : this.getLibraries().getFiles()) {
+      this.addLibrary(library, entries, libraryEntries, services);
+    }
+
+    // Merged instead of picking one, every library registers its own implementations
+    for (Map.Entry<String, Set<String>> service : services.entrySet()) {
+      byte[] existing = entries.get(service.getKey());
+      Set<String> lines = new LinkedHashSet<>();
+      if (existing != null) {
+        lines.addAll(serviceLines(existing));
+      }
+      lines.addAll(service.getValue());
+      entries.put(service.getKey(), (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    if (this.getShrink().get()) {
+      this.shrink(entries, libraryEntries, pluginClasses);
+    }
+    entries.putAll(libraryEntries);
+    entries.putIfAbsent(JarFile.MANIFEST_NAME, defaultManifest());
+
+    Path archive = this.getArchiveFile().get().getAsFile().toPath();
+    try (var phase = this.getMetricsService().get().start(this.getPath(), HytaleMetricsService.PHASE_BUNDLE_JAR)) {
+      long size = DeterministicJarWriter.write(
+        archive,
+        entries,
+        this.getCompressionLevel().get(),
+        this.getStoredExtensions().get()
+      );
+      phase.bytes(size).entries(entries.size());
+      logger.lifecycle("Bundled {} entries into {} ({} KiB)", entries.size(), archive, size / 1024);
+    }
+  }
+
+  private void shrink(
+    Map<String, byte[]> entries,
+    Map<String, byte[]> libraryEntries,
+    Set<String> pluginClasses
+  ) throws IOException {
+    Map<String, byte[]> all = new TreeMap<>(libraryEntries);
+    all.putAll(entries);
+
+    // The server may load any plugin class by reflection, so all of them are roots, not only the main classes.
+    // Service implementations are looked up by name at runtime.
+    Set<String> roots = new HashSet<>(pluginClasses);
+    for (String entryPoint : this.getEntryPoints().get()) {
+      roots.add(entryPoint.replace('.', '/'));
+    }
+    for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+      if (entry.getKey().startsWith(SERVICES_PREFIX)) {
+        for (String implementation : serviceLines(entry.getValue())) {
+          roots.add(implementation.replace('.', '/'));
+        }
+      }
+    }
+    ClassFilter keep = ClassFilter.of(this.getKeep().get(), List.of());
+    for (String entry : libraryEntries.keySet()) {
+      String className = ClassShrinker.className(entry);
+      if (className != null && keep.test(className)) {
+        roots.add(className);
+      }
+    }
+
+    Set<String> reachable = ClassShrinker.reachable(all, roots);
+    int before = 0;
+    int removed = 0;
+    var iterator = libraryEntries.keySet().iterator();
+    while (iterator.hasNext()) {
+      String className = ClassShrinker.className(iterator.next());
+      if (className == null) {
+        continue;
+      }
+      before++;
+      if (!reachable.contains(className)) {
+        iterator.remove();
+        removed++;
+      }
+    }
+    this.getLogger().lifecycle("Shrunk the shaded libraries from {} to {} class files", before, before - removed);
+  }
+
+  private void addDirectory(Path directory, Map<String, byte[]> entries, Set<String> pluginClasses) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+        String name = directory.relativize(file).toString().replace(File.separatorChar, '/');
+        entries.put(name, Files.readAllBytes(file));
+        String className = ClassShrinker.className(name);
+        if (className != null) {
+          pluginClasses.add(className);
+        }
+      }
+    }
+  }
+
+  // Entries of the plugin win over those of libraries, the first library wins over later ones
+  private void addLibrary(
+    File library,
+    Map<String, byte[]> entries,
+    Map<String, byte[]> libraryEntries,
+    Map<String, Set<String>> services
+  ) throws IOException {
+    if (!library.isFile()) {
+      return;
+    }
+
+    try (ZipFile zip = new ZipFile(library)) {
+      for (ZipEntry entry : Collections.list(zip.entries())) {
+        String name = entry.getName();
+        if (entry.isDirectory() || isExcluded(name)) {
+          continue;
+        }
+
+        try (InputStream in = zip.getInputStream(entry)) {
+          byte[] bytes = in.readAllBytes();
+          if (name.startsWith(SERVICES_PREFIX) && name.indexOf('/', SERVICES_PREFIX.length()) < 0) {
+            services.computeIfAbsent(name, ignored -> new LinkedHashSet<>()).addAll(serviceLines(bytes));
+          } else if (!entries.containsKey(name) && libraryEntries.putIfAbsent(name, bytes) != null) {
+            this.getLogger().info("Skipping duplicate entry {} of {}", name, library.getName());
+          }
+        }
+      }
+    }
+  }
+
+  // Manifests, signatures and module descriptors only describe the original library
+  private static boolean isExcluded(String name) {
+    if (name.equals(JarFile.MANIFEST_NAME) || name.endsWith(MODULE_INFO)) {
+      return true;
+    }
+    if (name.startsWith("META-INF/") && name.indexOf('/', "META-INF/".length()) < 0) {
+      String upper = name.toUpperCase();
+      return SIGNATURE_EXTENSIONS.stream().anyMatch(upper::endsWith);
+    }
+    return false;
+  }
+
+  private static List<String> serviceLines(byte[] bytes) {
+    return new String(bytes, StandardCharsets.UTF_8).lines()
+      .map(line -> {
+        int comment = line.indexOf('#');
+        return (comment >= 0 ? line.substring(0, comment) : line).trim();
+      })
+      .filter(line -> !line.isEmpty())
+      .toList();
+  }
+
+  private static byte[] defaultManifest() throws IOException {
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    manifest.write(out);
+    return out.toByteArray();
+  }
+}
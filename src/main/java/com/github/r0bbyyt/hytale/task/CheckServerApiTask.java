@@ -0,0 +1,111 @@
+package com.github.r0bbyyt.hytale.task;
+
+import com.github.r0bbyyt.hytale.api.ApiChecker;
+import com.github.r0bbyyt.hytale.api.ApiIndex;
+import com.github.r0bbyyt.hytale.metrics.HytaleMetricsService;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.jvm.toolchain.JavaLauncher;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// Checks the compiled plugin classes against the server JAR they will run with. Up to date until the classes,
+// the main classes or the server change, the index of the server is shared by all builds using that server JAR.
+@CacheableTask
+public abstract class CheckServerApiTask extends DefaultTask {
+
+  public static final String REPORT_FILE = "hytale/api-check.txt";
+
+  @Classpath
+  public abstract ConfigurableFileCollection getClasses();
+
+  // Identified by the fingerprint, which holds its SHA-256
+  @Internal
+  public abstract RegularFileProperty getServerJar();
+
+  @InputFile
+  @PathSensitive(PathSensitivity.NONE)
+  public abstract RegularFileProperty getServerFingerprint();
+
+  @Input
+  public abstract ListProperty<String> getMainClasses();
+
+  @Input
+  public abstract Property<String> getPluginBaseClass();
+
+  // The JDK classes are read from the toolchain the plugin runs on
+  @Nested
+  public abstract Property<JavaLauncher> getJavaLauncher();
+
+  // Rebuilt when missing or written by another plugin version, never part of the task outputs
+  @Internal
+  public abstract RegularFileProperty getIndexFile();
+
+  @Internal
+  public abstract Property<HytaleMetricsService> getMetricsService();
+
+  // The problems found, one per line
+  @OutputFile
+  public abstract RegularFileProperty getReportFile();
+
+  @TaskAction
+  public void check() throws IOException {
+    var logger = this.getLogger();
+    var metrics = this.getMetricsService().get();
+    Path indexFile = this.getIndexFile().get().getAsFile().toPath();
+    Path serverJar = this.getServerJar().get().getAsFile().toPath();
+
+    // The version alone does not identify the JAR, a locally patched or updated server keeps its version
+    String serverHash = Files.readString(this.getServerFingerprint().get().getAsFile().toPath()).strip();
+    ApiIndex index = ApiIndex.read(indexFile, serverHash);
+    if (index == null) {
+      try (var phase = metrics.start(this.getPath(), HytaleMetricsService.PHASE_API_INDEX)) {
+        logger.lifecycle("Indexing the server API into {}", indexFile);
+        index = ApiIndex.build(serverJar, serverHash);
+        index.write(indexFile);
+        phase.bytes(Files.size(indexFile)).entries(index.size());
+      }
+    }
+
+    List<String> problems;
+    try (var phase = metrics.start(this.getPath(), HytaleMetricsService.PHASE_API_CHECK)) {
+      problems = ApiChecker.check(
+        index,
+        this.getClasses().getFiles(),
+        this.getMainClasses().get(),
+        this.getPluginBaseClass().get(),
+        this.getJavaLauncher().get().getMetadata().getInstallationPath().getAsFile().toPath()
+      );
+      phase.entries(problems.size());
+    }
+
+    Path reportFile = this.getReportFile().get().getAsFile().toPath();
+    Files.createDirectories(reportFile.getParent());
+    Files.write(reportFile, problems, StandardCharsets.UTF_8);
+    if (!problems.isEmpty()) {
+      throw new GradleException(
+        "The plugin does not match the server API, " + problems.size() + " problem(s):\n  - "
+        + String.join("\n  - ", problems)
+      );
+    }
+    logger.lifecycle("All server references of the plugin resolve against {} indexed classes", index.size());
+  }
+}
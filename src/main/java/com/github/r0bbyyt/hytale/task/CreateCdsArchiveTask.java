@@ -0,0 +1,117 @@
+package com.github.r0bbyyt.hytale.task;
+
+import com.github.r0bbyyt.hytale.metrics.HytaleMetricsService;
+import com.github.r0bbyyt.hytale.run.CdsArguments;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.jvm.toolchain.JavaLauncher;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Starts the server once for the training duration and stops it, the JVM writes the archive while exiting.
+// Up to date until the server JAR, the libraries or the JVM change.
+public abstract class CreateCdsArchiveTask extends DefaultTask {
+
+  public static final Duration STOP_TIMEOUT = Duration.ofMinutes(1);
+  public static final String LOG_EXTENSION = ".log";
+
+  @Nested
+  public abstract Property<JavaLauncher> getJavaLauncher();
+
+  // JARs only, the JVM cannot archive classes from directories. Later runs must start with the same entries
+  // and may only append to them, like the classes directories of the plugin.
+  @Classpath
+  public abstract ConfigurableFileCollection getClasspath();
+
+  @Input
+  public abstract Property<String> getMainClass();
+
+  @Input
+  public abstract ListProperty<String> getProgramArguments();
+
+  // Collector and object layout must match the later runs for the archive to be used
+  @Input
+  public abstract ListProperty<String> getJvmArguments();
+
+  @Internal
+  public abstract DirectoryProperty getWorkingDirectory();
+
+  @Internal
+  public abstract Property<Duration> getTrainingDuration();
+
+  @Internal
+  public abstract Property<HytaleMetricsService> getMetricsService();
+
+  @OutputFile
+  public abstract RegularFileProperty getArchiveFile();
+
+  @TaskAction
+  public void train() throws IOException, InterruptedException {
+    var logger = this.getLogger();
+    JavaLauncher launcher = this.getJavaLauncher().get();
+    int javaVersion = launcher.getMetadata().getLanguageVersion().asInt();
+    if (!CdsArguments.isSupported(javaVersion)) {
+      throw new GradleException("Class data sharing archives need Java " + CdsArguments.DYNAMIC_ARCHIVE_VERSION
+                                + " or newer, the server runs on Java " + javaVersion);
+    }
+
+    Path archive = this.getArchiveFile().get().getAsFile().toPath();
+    Files.deleteIfExists(archive);
+    Files.createDirectories(archive.getParent());
+    File workingDir = this.getWorkingDirectory().get().getAsFile();
+    Files.createDirectories(workingDir.toPath());
+
+    List<String> command = new ArrayList<>();
+    command.add(launcher.getExecutablePath().getAsFile().getAbsolutePath());
+    command.addAll(this.getJvmArguments().get());
+    command.addAll(CdsArguments.training(javaVersion, archive.toFile()));
+    command.add("-cp");
+    command.add(this.getClasspath().getAsPath());
+    command.add(this.getMainClass().get());
+    command.addAll(this.getProgramArguments().get());
+
+    Duration duration = this.getTrainingDuration().get();
+    Path logFile = archive.resolveSibling(archive.getFileName() + LOG_EXTENSION);
+    try (var phase = this.getMetricsService().get().start(this.getPath(), HytaleMetricsService.PHASE_CDS_TRAINING)) {
+      logger.lifecycle("Training the class data sharing archive for {}, logging to {}", duration, logFile);
+      Process process = new ProcessBuilder(command)
+        .directory(workingDir)
+        .redirectErrorStream(true)
+        .redirectOutput(logFile.toFile())
+        .start();
+
+      // Stopped like with Ctrl+C, the archive is only written on a regular JVM exit
+      if (!process.waitFor(duration.toMillis(), TimeUnit.MILLISECONDS)) {
+        process.destroy();
+        if (!process.waitFor(STOP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+          process.destroyForcibly();
+          throw new GradleException("The server did not stop within " + STOP_TIMEOUT + " after the training run");
+        }
+      }
+
+      if (!Files.isRegularFile(archive)) {
+        throw new GradleException("The training run did not write " + archive + ", see " + logFile);
+      }
+      phase.bytes(Files.size(archive)).entries(1);
+    }
+    logger.lifecycle("Created the class data sharing archive {}", archive);
+  }
+}
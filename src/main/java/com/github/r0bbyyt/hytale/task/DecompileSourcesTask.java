@@ -0,0 +1,391 @@
+package com.github.r0bbyyt.hytale.task;
+
+import com.github.r0bbyyt.hytale.cache.CacheEviction;
+import com.github.r0bbyyt.hytale.cache.CacheLock;
+import com.github.r0bbyyt.hytale.decompile.ClassFilter;
+import com.github.r0bbyyt.hytale.decompile.ClassIndex;
+import com.github.r0bbyyt.hytale.decompile.DaemonDecompileAction;
+import com.github.r0bbyyt.hytale.decompile.DecompileAction;
+import com.github.r0bbyyt.hytale.decompile.DecompileCache;
+import com.github.r0bbyyt.hytale.decompile.DecompileMemory;
+import com.github.r0bbyyt.hytale.decompile.DecompileParameters;
+import com.github.r0bbyyt.hytale.decompile.DecompilerDaemonService;
+import com.github.r0bbyyt.hytale.decompile.DecompileShards;
+import com.github.r0bbyyt.hytale.decompile.ReferenceScanner;
+import com.github.r0bbyyt.hytale.decompile.SourcesJar;
+import com.github.r0bbyyt.hytale.metrics.HytaleMetricsService;
+import org.gradle.api.Action;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.DisableCachingByDefault;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutionException;
+import org.gradle.workers.WorkerExecutor;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// A build cache hit would rewrite the published files without the cache lock
+@DisableCachingByDefault(because = "Publishes into the Hytale cache, which is shared with other projects and builds")
+public abstract class DecompileSourcesTask extends DefaultTask {
+
+  // Each retry after running out of memory doubles the shard count
+  public static final int MAX_DECOMPILE_ATTEMPTS = 3;
+  public static final String ATTEMPT_PROPERTY = "hytale.decompileAttempt";
+
+  public static final String FINGERPRINT_SUFFIX = "-" + SetupServerDependencyTask.SOURCES_CLASSIFIER
+                                                  + SetupServerDependencyTask.FINGERPRINT_EXTENSION;
+  public static final String LOCAL_FINGERPRINT_FILE = "hytale/server-sources.fingerprint";
+
+  @InputFile
+  @PathSensitive(PathSensitivity.NONE)
+  public abstract RegularFileProperty getServerJar();
+
+  @Input
+  public abstract MapProperty<String, String> getDecompilerOptions();
+
+  @Input
+  public abstract ListProperty<String> getIncludes();
+
+  @Input
+  public abstract ListProperty<String> getExcludes();
+
+  @Input
+  public abstract Property<Boolean> getReferencedOnly();
+
+  // Compiled plugin classes, only scanned in referenced-only mode
+  @Classpath
+  public abstract ConfigurableFileCollection getReferenceClasses();
+
+  // Both sized from the selected classes and the physical memory when absent
+  @Internal
+  public abstract Property<Integer> getDecompilerShards();
+
+  @Internal
+  public abstract Property<String> getDecompilerHeapSize();
+
+  @Internal
+  public abstract Property<Integer> getMaxParallelism();
+
+  @Internal
+  public abstract DirectoryProperty getDecompileCacheDirectory();
+
+  @Internal
+  public abstract RegularFileProperty getCacheLockFile();
+
+  @Internal
+  public abstract Property<Long> getDecompileCacheMaxSize();
+
+  @Internal
+  public abstract Property<HytaleMetricsService> getMetricsService();
+
+  @Internal
+  public abstract Property<Boolean> getUseDecompilerDaemon();
+
+  @Internal
+  public abstract Property<DecompilerDaemonService> getDecompilerDaemon();
+
+  @Internal
+  public abstract DirectoryProperty getDecompilerDaemonDirectory();
+
+  // The published files are no task outputs, other projects of the build publish the same files
+  @Internal
+  public abstract RegularFileProperty getSourcesArtifact();
+
+  // Selected units and decompiler options key, the sources are only reusable if both match
+  @Internal
+  public abstract RegularFileProperty getPublishedFingerprintFile();
+
+  // Fingerprint of the published sources, kept in the project as the output of this task
+  @OutputFile
+  public abstract RegularFileProperty getFingerprintFile();
+
+  @Inject
+  public abstract WorkerExecutor getWorkerExecutor();
+
+  public DecompileSourcesTask() {
+    this.getOutputs().upToDateWhen(task -> SetupServerDependencyTask.isStillPublished(
+      this.getPublishedFingerprintFile().get().getAsFile().toPath(),
+      this.getFingerprintFile().get().getAsFile().toPath()
+    ));
+  }
+
+  @TaskAction
+  public void decompile() throws IOException {
+    Path serverJarPath = this.getServerJar().get().getAsFile().toPath();
+
+    if (!Files.exists(serverJarPath)) {
+      throw new GradleException("Server JAR not found at: " + serverJarPath);
+    }
+
+    Map<String, String> options = this.getDecompilerOptions().get();
+    HytaleMetricsService metrics = this.getMetricsService().get();
+    ClassIndex index;
+    try (var phase = metrics.start(this.getPath(), HytaleMetricsService.PHASE_INDEX)) {
+      index = this.selectUnits(serverJarPath);
+      phase.bytes(totalSize(index.units())).entries(index.units().size());
+    }
+    String fingerprint = index.fingerprint() + "\n" + DecompileCache.optionsKey(options) + "\n";
+    this.publishSources(serverJarPath, index, options, fingerprint, metrics);
+
+    Path fingerprintFile = this.getFingerprintFile().get().getAsFile().toPath();
+    Files.createDirectories(fingerprintFile.getParent());
+    Files.writeString(fingerprintFile, fingerprint);
+  }
+
+  private void publishSources(
+    Path serverJarPath,
+    ClassIndex index,
+    Map<String, String> options,
+    String fingerprint,
+    HytaleMetricsService metrics
+  ) throws IOException {
+    var logger = this.getLogger();
+    Path lockFile = this.getCacheLockFile().get().getAsFile().toPath();
+    Path sourcesArtifact = this.getSourcesArtifact().get().getAsFile().toPath();
+    Path fingerprintFile = this.getPublishedFingerprintFile().get().getAsFile().toPath();
+
+    // The cache may be shared with other builds on this machine. The lock is only held to check and to publish,
+    // so their setupServerDependency never waits for a whole decompile.
+    try (CacheLock ignored = CacheLock.acquire(lockFile, logger)) {
+      Files.createDirectories(sourcesArtifact.getParent());
+      if (this.reusePublished(sourcesArtifact, fingerprintFile, fingerprint)) {
+        logger.lifecycle("Server sources are unchanged, skipping decompilation");
+        return;
+      }
+    }
+
+    // Units are stored atomically in the per-class cache, other builds can read and fill it meanwhile
+    DecompileCache cache = this.decompileUnits(serverJarPath, index, options, metrics);
+
+    try (CacheLock ignored = CacheLock.acquire(lockFile, logger)) {
+      // Another build may have published the same sources while this one was decompiling
+      if (this.reusePublished(sourcesArtifact, fingerprintFile, fingerprint)) {
+        logger.lifecycle("Server sources were published by another build in the meantime");
+        return;
+      }
+
+      Files.deleteIfExists(fingerprintFile);
+      this.writeSourcesJar(index, cache, sourcesArtifact, metrics);
+
+      // Written last, so an interrupted publication never leaves a valid fingerprint behind
+      Files.writeString(fingerprintFile, fingerprint);
+      logger.lifecycle("Published server sources to {}", sourcesArtifact);
+
+      try (var ignoredPhase = metrics.start(this.getPath(), HytaleMetricsService.PHASE_EVICTION)) {
+        new CacheEviction(logger).evictSources(
+          this.getDecompileCacheDirectory().get().getAsFile().toPath(),
+          this.getDecompileCacheMaxSize().get()
+        );
+      }
+    }
+  }
+
+  private ClassIndex selectUnits(Path serverJar) throws IOException {
+    ClassFilter filter = ClassFilter.of(this.getIncludes().get(), this.getExcludes().get());
+    ClassIndex index = ClassIndex.read(serverJar, filter);
+    if (!this.getReferencedOnly().get()) {
+      return index;
+    }
+
+    ClassIndex referenced = index.retainReferenced(ReferenceScanner.scan(this.getReferenceClasses()));
+    this.getLogger().lifecycle(
+      "Decompiling the {} of {} source units referenced by the plugin classes",
+      referenced.units().size(),
+      index.units().size()
+    );
+    return referenced;
+  }
+
+  private DecompileCache decompileUnits(
+    Path serverJar,
+    ClassIndex index,
+    Map<String, String> options,
+    HytaleMetricsService metrics
+  ) throws IOException {
+    var logger = this.getLogger();
+    Path cacheRoot = this.getDecompileCacheDirectory().get().getAsFile().toPath();
+    DecompileCache cache = DecompileCache.forOptions(cacheRoot, options);
+
+    List<ClassIndex.Unit> missing = missingUnits(index, cache);
+    logger.lifecycle(
+      "Reusing {} of {} cached source units, decompiling {}",
+      index.units().size() - missing.size(),
+      index.units().size(),
+      missing.size()
+    );
+
+    // Marked as recently used right away, so the eviction of a concurrent build keeps them until they are written
+    for (ClassIndex.Unit unit : index.units()) {
+      if (cache.contains(unit.hash())) {
+        cache.touch(unit.hash());
+      }
+    }
+
+    if (!missing.isEmpty()) {
+      try (var phase = metrics.start(this.getPath(), HytaleMetricsService.PHASE_DECOMPILE)) {
+        DecompileMemory.Plan plan = this.plan(index, missing);
+        int shardCount = plan.shards();
+        for (int attempt = 1; ; attempt++) {
+          try {
+            List<ClassIndex.Unit> remaining = missingUnits(index, cache);
+            this.decompileShards(serverJar, index, remaining, shardCount, attempt, plan, cache, options);
+            break;
+          } catch (WorkerExecutionException e) {
+            if (attempt == MAX_DECOMPILE_ATTEMPTS || !DecompileMemory.isOutOfMemory(e)) {
+              throw e;
+            }
+
+            // Finished units are already cached, only the rest is decompiled again
+            shardCount *= 2;
+            logger.warn("Decompiler ran out of memory, retrying the remaining units in {} smaller shards", shardCount);
+          }
+        }
+        phase.bytes(totalSize(missing)).entries(missing.size());
+      }
+    }
+    return cache;
+  }
+
+  private void writeSourcesJar(ClassIndex index, DecompileCache cache, Path sourcesJar, HytaleMetricsService metrics)
+    throws IOException {
+    var logger = this.getLogger();
+    try (var phase = metrics.start(this.getPath(), HytaleMetricsService.PHASE_SOURCES_JAR)) {
+      List<String> skipped = SourcesJar.write(index, cache, sourcesJar);
+      for (String unit : skipped) {
+        logger.warn("No decompiled source produced for {}", unit);
+      }
+      phase.bytes(Files.size(sourcesJar)).entries(index.units().size() - skipped.size());
+    }
+  }
+
+  // With the daemon, all parallel shards share its heap instead of getting a JVM each
+  private DecompileMemory.Plan plan(ClassIndex index, List<ClassIndex.Unit> missing) {
+    Long heapSize = this.getDecompilerHeapSize().map(DecompileMemory::parseSize).getOrNull();
+    boolean daemon = this.getUseDecompilerDaemon().get();
+    DecompileMemory.Plan plan = DecompileMemory.plan(
+      index.jarClassBytes(),
+      missing,
+      this.getDecompilerShards().getOrNull(),
+      daemon ? null : heapSize,
+      this.getMaxParallelism().get(),
+      daemon ? DecompileMemory.parseSize(this.getDecompilerDaemon().get().heapSize()) : DecompileMemory.budget()
+    );
+
+    this.getLogger().lifecycle(
+      "Decompiling server sources in {} shard(s), {} at a time with {} heap {}",
+      plan.shards(),
+      plan.parallel(),
+      DecompileMemory.formatSize(plan.heapSize()),
+      daemon ? "in the decompiler daemon" : "each"
+    );
+    return plan;
+  }
+
+  // Submitted in waves, so no more than the planned number of decompilers run at the same time
+  private void decompileShards(
+    Path serverJar,
+    ClassIndex index,
+    List<ClassIndex.Unit> units,
+    int shardCount,
+    int attempt,
+    DecompileMemory.Plan plan,
+    DecompileCache cache,
+    Map<String, String> options
+  ) {
+    List<Set<String>> shards = DecompileShards.partition(units, shardCount);
+    WorkQueue queue = this.createQueue(plan.heapSize(), attempt);
+    for (int wave = 0; wave < shards.size(); wave += plan.parallel()) {
+      for (Set<String> shard : shards.subList(wave, Math.min(shards.size(), wave + plan.parallel()))) {
+        Map<String, String> shardUnits = new TreeMap<>();
+        for (String name : shard) {
+          shardUnits.put(name, index.get(name).hash());
+        }
+        this.submit(queue, parameters -> {
+          parameters.getServerJar().set(serverJar.toFile());
+          parameters.getUnits().set(shardUnits);
+          parameters.getCacheDirectory().set(cache.getDirectory().toFile());
+          parameters.getOptions().set(options);
+        });
+      }
+      queue.await();
+    }
+  }
+
+  private WorkQueue createQueue(long heapSize, int attempt) {
+    if (this.getUseDecompilerDaemon().get()) {
+      // The daemon JVM decompiles, the workers only wait for it
+      return this.getWorkerExecutor().noIsolation();
+    }
+
+    return this.getWorkerExecutor().processIsolation(spec -> {
+      spec.forkOptions(fork -> {
+        fork.setMaxHeapSize(DecompileMemory.formatSize(heapSize));
+        // Differing fork options keep Gradle from reusing a worker that ran out of memory before
+        fork.systemProperty(ATTEMPT_PROPERTY, attempt);
+      });
+    });
+  }
+
+  private void submit(WorkQueue queue, Action<? super DecompileParameters> configure) {
+    if (!this.getUseDecompilerDaemon().get()) {
+      queue.submit(DecompileAction.class, configure);
+      return;
+    }
+
+    queue.submit(DaemonDecompileAction.class, parameters -> {
+      configure.execute(parameters);
+      parameters.getDaemon().set(this.getDecompilerDaemon());
+      parameters.getStateDirectory().set(this.getDecompilerDaemonDirectory());
+    });
+  }
+
+  private static List<ClassIndex.Unit> missingUnits(ClassIndex index, DecompileCache cache) {
+    List<ClassIndex.Unit> missing = new ArrayList<>();
+    for (ClassIndex.Unit unit : index.units()) {
+      if (!cache.contains(unit.hash())) {
+        missing.add(unit);
+      }
+    }
+    return missing;
+  }
+
+  private static long totalSize(Collection<ClassIndex.Unit> units) {
+    return units.stream().mapToLong(ClassIndex.Unit::size).sum();
+  }
+
+  // Touches the fingerprint of matching sources, the version eviction keeps recently used versions
+  private boolean reusePublished(Path sourcesJar, Path fingerprintFile, String fingerprint) throws IOException {
+    if (!Files.exists(sourcesJar) || !Files.exists(fingerprintFile)
+        || !Files.readString(fingerprintFile).equals(fingerprint)) {
+      return false;
+    }
+
+    Files.setLastModifiedTime(fingerprintFile, FileTime.from(Instant.now()));
+    return true;
+  }
+}
@@ -0,0 +1,69 @@
+package com.github.r0bbyyt.hytale.task;
+
+import com.github.r0bbyyt.hytale.agent.HotReloadAgent;
+import com.github.r0bbyyt.hytale.util.Util;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HexFormat;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+// Packs the hot reload agent of this plugin into a JAR the server JVM can load with -javaagent
+public abstract class GenerateDevAgentTask extends DefaultTask {
+
+  public static final String AGENT_JAR = "hytale/dev-agent.jar";
+  public static final String PREMAIN_CLASS = "Premain-Class";
+  public static final String CAN_REDEFINE_CLASSES = "Can-Redefine-Classes";
+
+  private static final String AGENT_ENTRY = HotReloadAgent.class.getName().replace('.', '/')
+                                            + HotReloadAgent.CLASS_EXTENSION;
+
+  @OutputFile
+  public abstract RegularFileProperty getAgentJar();
+
+  // Rebuilds the JAR whenever the plugin ships a different agent
+  @Input
+  public String getAgentChecksum() {
+    return HexFormat.of().formatHex(Util.newSha256().digest(readAgentClass()));
+  }
+
+  @TaskAction
+  public void generate() throws IOException {
+    Path agentJar = this.getAgentJar().get().getAsFile().toPath();
+    Files.createDirectories(agentJar.getParent());
+
+    Manifest manifest = new Manifest();
+    Attributes attributes = manifest.getMainAttributes();
+    attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    attributes.putValue(PREMAIN_CLASS, HotReloadAgent.class.getName());
+    attributes.putValue(CAN_REDEFINE_CLASSES, "true");
+
+    try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(agentJar), manifest)) {
+      jar.putNextEntry(new JarEntry(AGENT_ENTRY));
+      jar.write(readAgentClass());
+      jar.closeEntry();
+    }
+  }
+
+  private static byte[] readAgentClass() {
+    try (InputStream in = HotReloadAgent.class.getClassLoader().getResourceAsStream(AGENT_ENTRY)) {
+      if (in == null) {
+        throw new IllegalStateException("Hot reload agent class not found: " + AGENT_ENTRY);
+      }
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read the hot reload agent class", e);
+    }
+  }
+}
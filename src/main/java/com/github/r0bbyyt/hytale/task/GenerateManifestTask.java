@@ -4,72 +4,146 @@ import com.github.r0bbyyt.hytale.manifest.AuthorInfo;
 import com.github.r0bbyyt.hytale.manifest.PluginManifest;
 import com.github.r0bbyyt.hytale.manifest.json.AuthorInfoJson;
 import com.github.r0bbyyt.hytale.manifest.json.ManifestJson;
+import com.github.r0bbyyt.hytale.metrics.HytaleMetricsService;
+import com.github.r0bbyyt.hytale.util.Util;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.NamedDomainObjectContainer;
 import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Nested;
 import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.TaskAction;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
+// Serializes every plugin on its own and only rewrites files whose bytes changed. Gradle compares content hashes
+// either way, skipping identical writes avoids file churn and the IDE and file watcher events that come with it.
+@CacheableTask
 public abstract class GenerateManifestTask extends DefaultTask {
 
   public static final String SINGLE_MANIFEST_FILE = "manifest.json";
   public static final String MULTI_MANIFEST_FILE = "manifests.json";
 
+  private static final Gson GSON = createGson();
+
   @Nested
   public abstract NamedDomainObjectContainer<PluginManifest> getPlugins();
 
+  @Internal
+  public abstract Property<HytaleMetricsService> getMetricsService();
+
+  // Packed into the plugin JAR, manifest.json for one plugin and manifests.json for several
   @OutputDirectory
   public abstract DirectoryProperty getOutputDirectory();
 
+  // One <name>/manifest.json per plugin including its sub-plugins, read by validateHytalePlugins. Deliberately not
+  // a resource directory per plugin, the plugin JAR only ships the combined file of the output directory.
+  @OutputDirectory
+  public abstract DirectoryProperty getPluginManifestsDirectory();
+
+  public static Gson createGson() {
+    return new GsonBuilder()
+      .setPrettyPrinting()
+      .disableHtmlEscaping()
+      .create();
+  }
+
   @TaskAction
   public void generate() throws IOException {
     Path outputDir = this.getOutputDirectory().get().getAsFile().toPath();
+    Path pluginsDir = this.getPluginManifestsDirectory().get().getAsFile().toPath();
     Files.createDirectories(outputDir);
+    Files.createDirectories(pluginsDir);
 
     var logger = this.getLogger();
-    Gson gson = new GsonBuilder()
-      .setPrettyPrinting()
-      .disableHtmlEscaping()
-      .create();
-
+    var metrics = this.getMetricsService().get();
     NamedDomainObjectContainer<PluginManifest> plugins = this.getPlugins();
 
-    if (plugins.isEmpty()) {
-      logger.lifecycle("No plugins configured, skipping manifest generation");
-      return;
+    try (var phase = metrics.start(this.getPath(), HytaleMetricsService.PHASE_MANIFEST)) {
+      List<ManifestJson> manifests = new ArrayList<>();
+      Set<String> names = new HashSet<>();
+      long written = 0;
+      int rewritten = 0;
+      for (PluginManifest plugin : plugins) {
+        ManifestJson json = this.toJson(plugin);
+        manifests.add(json);
+        names.add(plugin.getName());
+
+        long bytes = writeIfChanged(pluginsDir.resolve(plugin.getName()).resolve(SINGLE_MANIFEST_FILE), json);
+        if (bytes >= 0) {
+          written += bytes;
+          rewritten++;
+          logger.info("Regenerated the manifest of plugin {}", plugin.getName());
+        }
+      }
+      deleteStalePlugins(pluginsDir, names);
+
+      // Only one of the formats may be packed, the other one is left over from a different plugin count
+      Path single = outputDir.resolve(SINGLE_MANIFEST_FILE);
+      Path multi = outputDir.resolve(MULTI_MANIFEST_FILE);
+      long bytes = -1;
+      if (manifests.size() == 1) {
+        Files.deleteIfExists(multi);
+        bytes = writeIfChanged(single, manifests.getFirst());
+      } else {
+        Files.deleteIfExists(single);
+        if (manifests.isEmpty()) {
+          Files.deleteIfExists(multi);
+        } else {
+          bytes = writeIfChanged(multi, manifests);
+        }
+      }
+      if (bytes >= 0) {
+        written += bytes;
+      }
+      phase.bytes(written).entries(rewritten);
+
+      if (manifests.isEmpty()) {
+        logger.lifecycle("No plugins configured, skipping manifest generation");
+      } else {
+        logger.lifecycle(
+          "Generated {} for {} plugins, {} changed",
+          manifests.size() == 1 ? SINGLE_MANIFEST_FILE : MULTI_MANIFEST_FILE,
+          manifests.size(),
+          rewritten
+        );
+      }
     }
+  }
 
-    if (plugins.size() == 1) {
-      PluginManifest manifest = plugins.iterator().next();
-      ManifestJson json = this.toJson(manifest);
+  // Returns the number of bytes written, or -1 when the file already had this content
+  private static long writeIfChanged(Path file, Object json) throws IOException {
+    byte[] bytes = GSON.toJson(json).getBytes(StandardCharsets.UTF_8);
+    if (Files.isRegularFile(file) && Arrays.equals(Files.readAllBytes(file), bytes)) {
+      return -1;
+    }
 
-      Path outputFile = outputDir.resolve(SINGLE_MANIFEST_FILE);
-      try (BufferedWriter writer = Files.newBufferedWriter(outputFile)) {
-        gson.toJson(json, writer);
-      }
-      logger.lifecycle("Generated {} for plugin: {}", SINGLE_MANIFEST_FILE, manifest.getName());
-    } else {
-      List<ManifestJson> manifestsList = new ArrayList<>();
-      for (PluginManifest manifest : plugins) {
-        manifestsList.add(this.toJson(manifest));
-      }
+    Files.createDirectories(file.getParent());
+    Files.write(file, bytes);
+    return bytes.length;
+  }
 
-      Path outputFile = outputDir.resolve(MULTI_MANIFEST_FILE);
-      try (BufferedWriter writer = Files.newBufferedWriter(outputFile)) {
-        gson.toJson(manifestsList, writer);
+  private static void deleteStalePlugins(Path pluginsDir, Set<String> names) throws IOException {
+    try (Stream<Path> directories = Files.list(pluginsDir)) {
+      for (Path directory : (Iterable<Path>) directories::iterator) {
+        if (!names.contains(directory.getFileName().toString())) {
+          Util.deleteDirectory(directory);
+        }
       }
-      logger.lifecycle("Generated {} for {} plugins", MULTI_MANIFEST_FILE, plugins.size());
     }
   }
 
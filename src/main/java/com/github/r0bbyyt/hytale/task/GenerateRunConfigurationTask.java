@@ -0,0 +1,87 @@
+package com.github.r0bbyyt.hytale.task;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Writes an IntelliJ IDEA application run configuration for projects that cannot reach the root IdeaModel
+public abstract class GenerateRunConfigurationTask extends DefaultTask {
+
+  public static final String RUN_CONFIGURATIONS_DIR = ".idea/runConfigurations";
+
+  @Input
+  public abstract Property<String> getConfigurationName();
+
+  @Input
+  public abstract Property<String> getMainClass();
+
+  @Input
+  public abstract Property<String> getModuleName();
+
+  @Input
+  public abstract Property<String> getWorkingDirectory();
+
+  // Gradle task run before every launch, it prepares the working directory
+  @Input
+  public abstract Property<String> getBeforeLaunchTask();
+
+  @Input
+  public abstract Property<String> getExternalProjectPath();
+
+  @Input
+  public abstract Property<String> getProgramParameters();
+
+  @Input
+  public abstract Property<String> getVmParameters();
+
+  @OutputFile
+  public abstract RegularFileProperty getOutputFile();
+
+  @TaskAction
+  public void generate() throws IOException {
+    String content = """
+      <component name="ProjectRunConfigurationManager">
+        <configuration default="false" name="%s" type="Application" factoryName="Application">
+          <option name="MAIN_CLASS_NAME" value="%s" />
+          <module name="%s" />
+          <option name="PROGRAM_PARAMETERS" value="%s" />
+          <option name="VM_PARAMETERS" value="%s" />
+          <option name="WORKING_DIRECTORY" value="%s" />
+          <method v="2">
+            <option name="Make" enabled="true" />
+            <option name="Gradle.BeforeRunTask" enabled="true" tasks="%s" externalProjectPath="%s"
+                    vmOptions="" scriptParameters="" />
+          </method>
+        </configuration>
+      </component>
+      """.formatted(
+      escape(this.getConfigurationName().get()),
+      escape(this.getMainClass().get()),
+      escape(this.getModuleName().get()),
+      escape(this.getProgramParameters().get()),
+      escape(this.getVmParameters().get()),
+      escape(this.getWorkingDirectory().get()),
+      escape(this.getBeforeLaunchTask().get()),
+      escape(this.getExternalProjectPath().get())
+    );
+
+    Path outputFile = this.getOutputFile().get().getAsFile().toPath();
+    Files.createDirectories(outputFile.getParent());
+    Files.writeString(outputFile, content);
+    this.getLogger().lifecycle("Generated run configuration '{}'", this.getConfigurationName().get());
+  }
+
+  private static String escape(String value) {
+    return value.replace("&", "&amp;")
+      .replace("\"", "&quot;")
+      .replace("<", "&lt;")
+      .replace(">", "&gt;");
+  }
+}
@@ -0,0 +1,178 @@
+package com.github.r0bbyyt.hytale.task;
+
+import com.github.r0bbyyt.hytale.run.PrepareInstanceDirectory;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.Named;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.UntrackedTask;
+import org.gradle.jvm.toolchain.JavaLauncher;
+import org.gradle.process.CommandLineArgumentProvider;
+
+import javax.inject.Inject;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Starts all server instances at once and waits until every one of them stopped. The output of each server is
+// prefixed with its name, cancelling the build stops all of them.
+@UntrackedTask(because = "Runs the servers until they are stopped")
+public abstract class RunServersTask extends DefaultTask {
+
+  private final List<CommandLineArgumentProvider> jvmArgumentProviders = new ArrayList<>();
+  private final List<Server> servers = new ArrayList<>();
+
+  @Nested
+  public abstract Property<JavaLauncher> getJavaLauncher();
+
+  @Classpath
+  public abstract ConfigurableFileCollection getClasspath();
+
+  @Input
+  public abstract Property<String> getMainClass();
+
+  // Copied into the working directory of an instance on its first start
+  @Internal
+  public abstract DirectoryProperty getTemplateDirectory();
+
+  // Shared by all servers, like the hot reload agent
+  @Nested
+  public List<CommandLineArgumentProvider> getJvmArgumentProviders() {
+    return this.jvmArgumentProviders;
+  }
+
+  @Nested
+  public List<Server> getServers() {
+    return this.servers;
+  }
+
+  public void server(Server server) {
+    this.servers.add(server);
+  }
+
+  @TaskAction
+  public void run() throws InterruptedException {
+    if (this.servers.isEmpty()) {
+      throw new GradleException("No server instances configured, add them to hytale.servers");
+    }
+
+    List<String> shared = new ArrayList<>();
+    shared.add(this.getJavaLauncher().get().getExecutablePath().getAsFile().getAbsolutePath());
+    for (CommandLineArgumentProvider provider : this.jvmArgumentProviders) {
+      provider.asArguments().forEach(shared::add);
+    }
+
+    Map<String, Process> processes = new LinkedHashMap<>();
+    List<Thread> pumps = new ArrayList<>();
+    try {
+      for (Server server : this.servers) {
+        List<String> command = new ArrayList<>(shared);
+        command.addAll(server.getJvmArguments().get());
+        for (CommandLineArgumentProvider provider : server.getJvmArgumentProviders()) {
+          provider.asArguments().forEach(command::add);
+        }
+        command.add("-cp");
+        command.add(this.getClasspath().getAsPath());
+        command.add(this.getMainClass().get());
+        command.addAll(server.getArguments().get());
+
+        var directory = server.getWorkingDirectory().get().getAsFile();
+        PrepareInstanceDirectory.prepare(this.getTemplateDirectory().get().getAsFile().toPath(), directory.toPath());
+        Process process = new ProcessBuilder(command)
+          .directory(directory)
+          .redirectErrorStream(true)
+          .start();
+        processes.put(server.getName(), process);
+        pumps.add(Thread.ofPlatform()
+          .name("hytale-server-" + server.getName())
+          .daemon()
+          .start(() -> this.pump(server.getName(), process)));
+        this.getLogger().lifecycle("Started server '{}' in {}", server.getName(), directory);
+      }
+
+      List<String> failed = new ArrayList<>();
+      for (Map.Entry<String, Process> entry : processes.entrySet()) {
+        int exitCode = entry.getValue().waitFor();
+        this.getLogger().lifecycle("Server '{}' stopped with exit code {}", entry.getKey(), exitCode);
+        if (exitCode != 0) {
+          failed.add(entry.getKey());
+        }
+      }
+      for (Thread pump : pumps) {
+        pump.join();
+      }
+
+      if (!failed.isEmpty()) {
+        throw new GradleException("Servers stopped with an error: " + String.join(", ", failed));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to start the servers", e);
+    } finally {
+      // Nothing is left running when a server fails to start or the build is cancelled
+      for (Process process : processes.values()) {
+        process.destroy();
+      }
+    }
+  }
+
+  private void pump(String name, Process process) {
+    String prefix = "[" + name + "] ";
+    try (BufferedReader reader = new BufferedReader(
+      new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)
+    )) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        this.getLogger().quiet(prefix + line);
+      }
+    } catch (IOException e) {
+      // The process is gone, its exit code is reported instead
+    }
+  }
+
+  // One server instance, arguments are complete apart from those shared by all servers
+  public abstract static class Server implements Named {
+
+    private final String name;
+    private final List<CommandLineArgumentProvider> jvmArgumentProviders = new ArrayList<>();
+
+    @Inject
+    public Server(String name) {
+      this.name = name;
+    }
+
+    @Override
+    @Input
+    public String getName() {
+      return this.name;
+    }
+
+    @Internal
+    public abstract DirectoryProperty getWorkingDirectory();
+
+    @Input
+    public abstract ListProperty<String> getJvmArguments();
+
+    // Arguments of this server only, like the class data sharing archive its JVM flags allow
+    @Nested
+    public List<CommandLineArgumentProvider> getJvmArgumentProviders() {
+      return this.jvmArgumentProviders;
+    }
+
+    @Input
+    public abstract ListProperty<String> getArguments();
+  }
+}
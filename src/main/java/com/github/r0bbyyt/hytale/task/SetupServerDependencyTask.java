@@ -1,153 +1,190 @@
 package com.github.r0bbyyt.hytale.task;
 
+import com.github.r0bbyyt.hytale.HytaleExtension.PublicationStrategy;
+import com.github.r0bbyyt.hytale.cache.CacheEviction;
+import com.github.r0bbyyt.hytale.cache.CacheLock;
+import com.github.r0bbyyt.hytale.metrics.HytaleMetricsService;
+import com.github.r0bbyyt.hytale.util.FilePublisher;
+import com.github.r0bbyyt.hytale.util.Util;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.GradleException;
-import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
-import org.gradle.api.tasks.InputDirectory;
-import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
-import org.gradle.workers.WorkAction;
-import org.gradle.workers.WorkParameters;
-import org.gradle.workers.WorkerExecutor;
-import org.jetbrains.java.decompiler.main.Fernflower;
-import org.jetbrains.java.decompiler.main.decompiler.DirectoryResultSaver;
-import org.jetbrains.java.decompiler.main.decompiler.PrintStreamLogger;
-import org.jetbrains.java.decompiler.main.extern.IFernflowerPreferences;
+import org.gradle.process.ExecOperations;
+import org.gradle.work.DisableCachingByDefault;
 
 import javax.inject.Inject;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.StandardCopyOption;
-import java.nio.file.attribute.BasicFileAttributes;
-import java.util.Enumeration;
-import java.util.Map;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
-import java.util.jar.Manifest;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
 
+// A build cache hit would rewrite the published files without the cache lock
+@DisableCachingByDefault(because = "Publishes into the Hytale cache, which is shared with other projects and builds")
 public abstract class SetupServerDependencyTask extends DefaultTask {
 
   public static final String GROUP_ID = "com.hypixel.hytale";
   public static final String ARTIFACT_ID = "server";
-  public static final String MANIFEST_VERSION_ATTRIBUTE = "Implementation-Version";
-  public static final String VERSION_CACHE_FILE = "server-version.txt";
   public static final String SOURCES_CLASSIFIER = "sources";
-  public static final String INCLUDED_PACKAGE_PREFIX = "com/hypixel/";
-
-  public static final String DECOMPILER_HEAP_SIZE = "4g";
-  public static final String TEMP_DIR_NAME = ".tmp";
-  public static final String FILTERED_JAR_NAME = "filtered.jar";
-  public static final String DECOMPILED_DIR_NAME = "decompiled";
-  public static final String CLASS_EXTENSION = ".class";
-  public static final String JAVA_EXTENSION = ".java";
-  public static final String INDENT_STRING = "    ";
-
-  public static String readCachedVersion(Path versionFile) throws IOException {
-    if (Files.exists(versionFile)) {
-      return Files.readString(versionFile).trim();
-    }
-    return null;
+  public static final String FINGERPRINT_EXTENSION = ".fingerprint";
+  public static final String JAR_EXTENSION = ".jar";
+  public static final String POM_EXTENSION = ".pom";
+  public static final String LOCAL_FINGERPRINT_FILE = "hytale/server.fingerprint";
+
+  // Location of an artifact file relative to the repository root, following the Maven layout
+  public static String artifactPath(String version, String suffix) {
+    return GROUP_ID.replace('.', '/') + "/" + ARTIFACT_ID + "/" + version + "/" + ARTIFACT_ID + "-" + version + suffix;
   }
 
-  @InputDirectory
-  public abstract DirectoryProperty getInstallationPath();
+  @InputFile
+  @PathSensitive(PathSensitivity.NONE)
+  public abstract RegularFileProperty getServerJar();
 
   @Input
-  public abstract Property<String> getServerSubdirectory();
+  public abstract Property<String> getServerVersion();
 
-  @Input
-  public abstract Property<String> getServerJarName();
+  @Internal
+  public abstract Property<PublicationStrategy> getPublicationStrategy();
+
+  @Internal
+  public abstract RegularFileProperty getCacheLockFile();
+
+  @Internal
+  public abstract Property<Integer> getRetainedVersions();
+
+  @Internal
+  public abstract Property<HytaleMetricsService> getMetricsService();
+
+  // The published files are no task outputs, other projects of the build publish the same files
+  @Internal
+  public abstract RegularFileProperty getServerArtifact();
 
-  @OutputDirectory
-  public abstract DirectoryProperty getRepositoryDirectory();
+  @Internal
+  public abstract RegularFileProperty getPomArtifact();
 
+  @Internal
+  public abstract RegularFileProperty getPublishedFingerprintFile();
+
+  // Hash of the published server JAR, kept in the project as the output of this task
   @OutputFile
-  public abstract RegularFileProperty getVersionCacheFile();
+  public abstract RegularFileProperty getFingerprintFile();
 
   @Inject
-  public abstract WorkerExecutor getWorkerExecutor();
+  public abstract ExecOperations getExecOperations();
+
+  public SetupServerDependencyTask() {
+    this.getOutputs().upToDateWhen(task -> isStillPublished(
+      this.getPublishedFingerprintFile().get().getAsFile().toPath(),
+      this.getFingerprintFile().get().getAsFile().toPath()
+    ));
+  }
+
+  // False once the published files were evicted or replaced by another build
+  static boolean isStillPublished(Path publishedFingerprint, Path fingerprint) {
+    try {
+      return Files.readString(publishedFingerprint).equals(Files.readString(fingerprint));
+    } catch (IOException e) {
+      return false;
+    }
+  }
 
   @TaskAction
   public void setup() throws IOException {
     var logger = this.getLogger();
-    Path installPath = this.getInstallationPath().get().getAsFile().toPath();
-    Path serverJarPath = installPath
-      .resolve(this.getServerSubdirectory().get())
-      .resolve(this.getServerJarName().get());
+    Path serverJarPath = this.getServerJar().get().getAsFile().toPath();
 
     if (!Files.exists(serverJarPath)) {
       throw new GradleException("Server JAR not found at: " + serverJarPath);
     }
 
-    String version = this.extractVersion(serverJarPath);
+    String version = this.getServerVersion().get();
     logger.lifecycle("Detected server version: {}", version);
 
-    Path versionFile = this.getVersionCacheFile().get().getAsFile().toPath();
-    Files.createDirectories(versionFile.getParent());
-    Files.writeString(versionFile, version);
-
-    Path repoDir = this.getRepositoryDirectory().get().getAsFile().toPath();
-    Path artifactDir = this.prepareArtifactDirectory(repoDir, version);
-
-    this.publishMainJar(serverJarPath, artifactDir, version);
-    this.publishPom(artifactDir, version);
-
-    this.getWorkerExecutor().processIsolation(spec -> {
-      spec.forkOptions(fork -> fork.setMaxHeapSize(DECOMPILER_HEAP_SIZE));
-    }).submit(DecompileAction.class, parameters -> {
-      parameters.getServerJar().set(serverJarPath.toFile());
-      parameters.getArtifactDirectory().set(artifactDir.toFile());
-      parameters.getVersion().set(version);
-    });
+    Path lockFile = this.getCacheLockFile().get().getAsFile().toPath();
+    Path serverArtifact = this.getServerArtifact().get().getAsFile().toPath();
+    Path publishedFingerprintFile = this.getPublishedFingerprintFile().get().getAsFile().toPath();
+    Path fingerprintFile = this.getFingerprintFile().get().getAsFile().toPath();
+    HytaleMetricsService metrics = this.getMetricsService().get();
+    String checksum;
+    try (var phase = metrics.start(this.getPath(), HytaleMetricsService.PHASE_CHECKSUM)) {
+      checksum = Util.sha256(serverJarPath);
+      phase.bytes(Files.size(serverJarPath)).entries(1);
+    }
+    String fingerprint = checksum + "\n";
+
+    // The cache may be shared with other builds on this machine
+    try (CacheLock ignored = CacheLock.acquire(lockFile, logger)) {
+      Files.createDirectories(serverArtifact.getParent());
+      if (this.isPublished(serverJarPath, serverArtifact, publishedFingerprintFile, fingerprint)) {
+        Files.setLastModifiedTime(publishedFingerprintFile, FileTime.from(Instant.now()));
+        logger.lifecycle("Server {} is unchanged, skipping publication", version);
+      } else {
+        this.publish(serverJarPath, version, checksum, fingerprint, metrics);
+      }
+    }
 
-    logger.lifecycle("Published {}:{}:{} to local repository (with sources)", GROUP_ID, ARTIFACT_ID, version);
+    Files.createDirectories(fingerprintFile.getParent());
+    Files.writeString(fingerprintFile, fingerprint);
   }
 
-  private String extractVersion(Path jarPath) throws IOException {
-    try (JarFile jarFile = new JarFile(jarPath.toFile())) {
-      Manifest manifest = jarFile.getManifest();
-      if (manifest == null) {
-        throw new GradleException("No manifest found in server JAR");
-      }
+  private void publish(
+    Path serverJarPath,
+    String version,
+    String checksum,
+    String fingerprint,
+    HytaleMetricsService metrics
+  ) throws IOException {
+    Path serverArtifact = this.getServerArtifact().get().getAsFile().toPath();
+    Path publishedFingerprintFile = this.getPublishedFingerprintFile().get().getAsFile().toPath();
+    Files.deleteIfExists(publishedFingerprintFile);
+    try (var phase = metrics.start(this.getPath(), HytaleMetricsService.PHASE_PUBLISH_JAR)) {
+      this.publishMainJar(serverJarPath, serverArtifact, checksum);
+      phase.bytes(Files.size(serverArtifact)).entries(1);
+    }
+    try (var phase = metrics.start(this.getPath(), HytaleMetricsService.PHASE_WRITE_POM)) {
+      this.publishPom(version);
+      phase.bytes(Files.size(this.getPomArtifact().get().getAsFile().toPath())).entries(1);
+    }
 
-      String version = manifest.getMainAttributes().getValue(MANIFEST_VERSION_ATTRIBUTE);
-      if (version == null || version.isBlank()) {
-        throw new GradleException("No " + MANIFEST_VERSION_ATTRIBUTE + " found in server JAR manifest");
-      }
+    // Written last, so an interrupted publication never leaves a valid fingerprint behind
+    Files.writeString(publishedFingerprintFile, fingerprint);
+    this.getLogger().lifecycle("Published {}:{}:{} to local repository", GROUP_ID, ARTIFACT_ID, version);
 
-      return version;
+    try (var ignoredPhase = metrics.start(this.getPath(), HytaleMetricsService.PHASE_EVICTION)) {
+      new CacheEviction(this.getLogger()).evictVersions(
+        serverArtifact.getParent().getParent(),
+        version,
+        FINGERPRINT_EXTENSION,
+        this.getRetainedVersions().get()
+      );
     }
   }
 
-  private Path prepareArtifactDirectory(Path repoDir, String version) throws IOException {
-    String groupPath = GROUP_ID.replace('.', '/');
-    Path artifactDir = repoDir.resolve(groupPath).resolve(ARTIFACT_ID).resolve(version);
-    Files.createDirectories(artifactDir);
-    return artifactDir;
+  private boolean isPublished(Path serverJar, Path publishedJar, Path fingerprintFile, String fingerprint)
+    throws IOException {
+    if (!Files.exists(publishedJar) || !Files.exists(fingerprintFile)) {
+      return false;
+    }
+
+    return Files.size(publishedJar) == Files.size(serverJar)
+           && Files.readString(fingerprintFile).equals(fingerprint);
   }
 
-  private void publishMainJar(Path jarPath, Path artifactDir, String version) throws IOException {
-    String artifactBaseName = ARTIFACT_ID + "-" + version;
-    Path targetJar = artifactDir.resolve(artifactBaseName + ".jar");
-    Files.copy(jarPath, targetJar, StandardCopyOption.REPLACE_EXISTING);
+  private void publishMainJar(Path jarPath, Path targetJar, String checksum) throws IOException {
+    PublicationStrategy strategy = this.getPublicationStrategy().get();
+    new FilePublisher(this.getExecOperations(), this.getLogger()).publish(jarPath, targetJar, checksum, strategy);
   }
 
-  private void publishPom(Path artifactDir, String version) throws IOException {
-    String artifactBaseName = ARTIFACT_ID + "-" + version;
-    Path targetPom = artifactDir.resolve(artifactBaseName + ".pom");
+  private void publishPom(String version) throws IOException {
+    Path targetPom = this.getPomArtifact().get().getAsFile().toPath();
     String pomContent = """
       <?xml version="1.0" encoding="UTF-8"?>
       <project xsi:schemaLocation="http://maven.apache.org/POM/4.0.0 http://maven.apache.org/xsd/maven-4.0.0.xsd"
@@ -162,123 +199,4 @@ public abstract class SetupServerDependencyTask extends DefaultTask {
       """.formatted(GROUP_ID, ARTIFACT_ID, version);
     Files.writeString(targetPom, pomContent);
   }
-
-  public interface DecompileParameters extends WorkParameters {
-    RegularFileProperty getServerJar();
-
-    DirectoryProperty getArtifactDirectory();
-
-    Property<String> getVersion();
-  }
-
-  public static abstract class DecompileAction implements WorkAction<DecompileParameters> {
-
-    @Override
-    public void execute() {
-      DecompileParameters params = this.getParameters();
-      File serverJar = params.getServerJar().get().getAsFile();
-      File artifactDir = params.getArtifactDirectory().get().getAsFile();
-      String version = params.getVersion().get();
-
-      try {
-        Path artifactPath = artifactDir.toPath();
-        Path tempDir = artifactPath.resolve(TEMP_DIR_NAME);
-        Files.createDirectories(tempDir);
-        Path filteredJar = tempDir.resolve(FILTERED_JAR_NAME);
-        Path decompileDir = tempDir.resolve(DECOMPILED_DIR_NAME);
-        Files.createDirectories(decompileDir);
-        try {
-          this.createFilteredJar(serverJar, filteredJar);
-          this.decompile(filteredJar.toFile(), decompileDir.toFile());
-
-          String sourcesJarName = ARTIFACT_ID + "-" + version + "-" + SOURCES_CLASSIFIER + ".jar";
-          Path sourcesJar = artifactPath.resolve(sourcesJarName);
-          this.createSourcesJar(decompileDir, sourcesJar);
-        } finally {
-          this.deleteDirectory(tempDir);
-        }
-      } catch (IOException e) {
-        throw new RuntimeException("Failed to create sources JAR", e);
-      }
-    }
-
-    private void createFilteredJar(File sourceJar, Path targetJar) throws IOException {
-      try (JarFile jarFile = new JarFile(sourceJar);
-           ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(targetJar.toFile()))) {
-
-        Enumeration<JarEntry> entries = jarFile.entries();
-        while (entries.hasMoreElements()) {
-          JarEntry entry = entries.nextElement();
-          String name = entry.getName();
-
-          if (name.startsWith(INCLUDED_PACKAGE_PREFIX) && name.endsWith(CLASS_EXTENSION)) {
-            zos.putNextEntry(new ZipEntry(name));
-            try (InputStream is = jarFile.getInputStream(entry)) {
-              is.transferTo(zos);
-            }
-            zos.closeEntry();
-          }
-        }
-      }
-    }
-
-    private void decompile(File inputJar, File outputDir) {
-      Map<String, Object> options = Map.of(
-        IFernflowerPreferences.DECOMPILE_GENERIC_SIGNATURES, "1",
-        IFernflowerPreferences.REMOVE_SYNTHETIC, "1",
-        IFernflowerPreferences.INCLUDE_ENTIRE_CLASSPATH, "1",
-        IFernflowerPreferences.INDENT_STRING, INDENT_STRING
-      );
-
-      Fernflower decompiler = new Fernflower(
-        new DirectoryResultSaver(outputDir),
-        options,
-        new PrintStreamLogger(System.out)
-      );
-
-      decompiler.addSource(inputJar);
-      try {
-        decompiler.decompileContext();
-      } finally {
-        decompiler.clearContext();
-      }
-    }
-
-    private void createSourcesJar(Path sourceDir, Path targetJar) throws IOException {
-      try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(targetJar.toFile()))) {
-        Files.walkFileTree(sourceDir, new SimpleFileVisitor<>() {
-          @Override
-          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-            if (file.toString().endsWith(JAVA_EXTENSION)) {
-              String entryName = sourceDir.relativize(file).toString().replace('\\', '/');
-              zos.putNextEntry(new ZipEntry(entryName));
-
-              try (FileInputStream fis = new FileInputStream(file.toFile())) {
-                fis.transferTo(zos);
-              }
-
-              zos.closeEntry();
-            }
-            return FileVisitResult.CONTINUE;
-          }
-        });
-      }
-    }
-
-    private void deleteDirectory(Path directory) throws IOException {
-      Files.walkFileTree(directory, new SimpleFileVisitor<>() {
-        @Override
-        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-          Files.delete(file);
-          return FileVisitResult.CONTINUE;
-        }
-
-        @Override
-        public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
-          Files.delete(dir);
-          return FileVisitResult.CONTINUE;
-        }
-      });
-    }
-  }
 }
@@ -0,0 +1,190 @@
+package com.github.r0bbyyt.hytale.task;
+
+import com.github.r0bbyyt.hytale.HytaleExtension.PublicationStrategy;
+import com.github.r0bbyyt.hytale.metrics.HytaleMetricsService;
+import com.github.r0bbyyt.hytale.util.FilePublisher;
+import com.github.r0bbyyt.hytale.util.Util;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileType;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.IgnoreEmptyDirectories;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.process.ExecOperations;
+import org.gradle.work.ChangeType;
+import org.gradle.work.FileChange;
+import org.gradle.work.Incremental;
+import org.gradle.work.InputChanges;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Stages the production server pack. Only files whose content changed since the last run are copied, in parallel,
+// and a checksum list lets deployments ship only the files that differ from what a node already has.
+public abstract class StageServerPackTask extends DefaultTask {
+
+  public static final String SERVER_DIR = "Server";
+  public static final String MODS_DIR = "mods";
+  public static final String CHECKSUMS_FILE = "checksums.sha256";
+  // Two spaces, the format sha256sum -c reads
+  private static final String CHECKSUM_SEPARATOR = "  ";
+
+  @InputFile
+  @Incremental
+  @PathSensitive(PathSensitivity.NONE)
+  public abstract RegularFileProperty getServerJar();
+
+  @InputFile
+  @Incremental
+  @PathSensitive(PathSensitivity.NONE)
+  public abstract RegularFileProperty getAssets();
+
+  @InputFiles
+  @Incremental
+  @PathSensitive(PathSensitivity.NAME_ONLY)
+  public abstract ConfigurableFileCollection getMods();
+
+  @InputFiles
+  @Incremental
+  @IgnoreEmptyDirectories
+  @PathSensitive(PathSensitivity.RELATIVE)
+  public abstract ConfigurableFileCollection getConfigs();
+
+  @Internal
+  public abstract Property<PublicationStrategy> getPublicationStrategy();
+
+  @Internal
+  public abstract Property<Integer> getMaxParallelism();
+
+  @Internal
+  public abstract Property<HytaleMetricsService> getMetricsService();
+
+  @OutputDirectory
+  public abstract DirectoryProperty getPackDirectory();
+
+  @Inject
+  public abstract ExecOperations getExecOperations();
+
+  @TaskAction
+  public void stage(InputChanges inputChanges) throws IOException, InterruptedException {
+    var logger = this.getLogger();
+    Path packDir = this.getPackDirectory().get().getAsFile().toPath();
+    Path checksumsFile = packDir.resolve(CHECKSUMS_FILE);
+
+    Map<String, String> checksums = new TreeMap<>();
+    if (inputChanges.isIncremental() && Files.isRegularFile(checksumsFile)) {
+      checksums.putAll(readChecksums(checksumsFile));
+    } else {
+      Util.deleteDirectory(packDir);
+    }
+    Files.createDirectories(packDir);
+
+    // Target paths inside the pack of every added, modified or removed file
+    Map<String, Path> staged = new TreeMap<>();
+    List<String> removed = new ArrayList<>();
+    collect(inputChanges.getFileChanges(this.getServerJar()), SERVER_DIR + "/", true, staged, removed);
+    collect(inputChanges.getFileChanges(this.getAssets()), "", true, staged, removed);
+    collect(inputChanges.getFileChanges(this.getMods()), MODS_DIR + "/", false, staged, removed);
+    collect(inputChanges.getFileChanges(this.getConfigs()), "", false, staged, removed);
+
+    for (String path : removed) {
+      Files.deleteIfExists(packDir.resolve(path));
+      checksums.remove(path);
+    }
+
+    FilePublisher publisher = new FilePublisher(this.getExecOperations(), logger);
+    PublicationStrategy strategy = this.getPublicationStrategy().get();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, this.getMaxParallelism().get()));
+    try (var phase = this.getMetricsService().get().start(this.getPath(), HytaleMetricsService.PHASE_SERVER_PACK)) {
+      Map<String, Future<String>> results = new TreeMap<>();
+      for (Map.Entry<String, Path> entry : staged.entrySet()) {
+        Path source = entry.getValue();
+        Path target = packDir.resolve(entry.getKey());
+        results.put(entry.getKey(), executor.submit(() -> {
+          String checksum = Util.sha256(source);
+          Files.createDirectories(target.getParent());
+          publisher.publish(source, target, checksum, strategy);
+          return checksum;
+        }));
+      }
+
+      long bytes = 0;
+      for (Map.Entry<String, Future<String>> result : results.entrySet()) {
+        checksums.put(result.getKey(), result.getValue().get());
+        bytes += Files.size(staged.get(result.getKey()));
+      }
+      phase.bytes(bytes).entries(results.size());
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException io) {
+        throw io;
+      }
+      throw new GradleException("Failed to stage the server pack", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    List<String> lines = new ArrayList<>();
+    checksums.forEach((path, checksum) -> lines.add(checksum + CHECKSUM_SEPARATOR + path));
+    Files.write(checksumsFile, lines);
+    logger.lifecycle(
+      "Staged {} changed and removed {} files of {} in {}",
+      staged.size(),
+      removed.size(),
+      checksums.size(),
+      packDir
+    );
+  }
+
+  // Single files keep their own name under the prefix, collections their normalized path
+  private static void collect(
+    Iterable<FileChange> changes,
+    String prefix,
+    boolean singleFile,
+    Map<String, Path> staged,
+    List<String> removed
+  ) {
+    for (FileChange change : changes) {
+      if (change.getFileType() == FileType.DIRECTORY) {
+        continue;
+      }
+
+      String name = singleFile ? change.getFile().getName() : change.getNormalizedPath();
+      String path = prefix + name.replace('\\', '/');
+      if (change.getChangeType() == ChangeType.REMOVED) {
+        removed.add(path);
+      } else {
+        staged.put(path, change.getFile().toPath());
+      }
+    }
+  }
+
+  private static Map<String, String> readChecksums(Path file) throws IOException {
+    Map<String, String> checksums = new TreeMap<>();
+    for (String line : Files.readAllLines(file)) {
+      int separator = line.indexOf(CHECKSUM_SEPARATOR);
+      if (separator > 0) {
+        checksums.put(line.substring(separator + CHECKSUM_SEPARATOR.length()), line.substring(0, separator));
+      }
+    }
+    return checksums;
+  }
+}
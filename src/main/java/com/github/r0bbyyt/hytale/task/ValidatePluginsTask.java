@@ -0,0 +1,154 @@
+package com.github.r0bbyyt.hytale.task;
+
+import com.github.r0bbyyt.hytale.manifest.PluginGraph;
+import com.github.r0bbyyt.hytale.manifest.json.ManifestJson;
+import com.github.r0bbyyt.hytale.metrics.HytaleMetricsService;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Resolves the plugins of this project together with the mod JARs like the server would on boot, so missing
+// dependencies, version conflicts and load order cycles fail the build instead of the server start
+@CacheableTask
+public abstract class ValidatePluginsTask extends DefaultTask {
+
+  public static final String LOAD_ORDER_FILE = "hytale/load-order.txt";
+
+  private static final Gson GSON = new Gson();
+
+  // The per-plugin manifests written by generateManifest
+  @InputFiles
+  @PathSensitive(PathSensitivity.RELATIVE)
+  public abstract ConfigurableFileCollection getManifests();
+
+  @InputFiles
+  @PathSensitive(PathSensitivity.NAME_ONLY)
+  public abstract ConfigurableFileCollection getModJars();
+
+  @Input
+  public abstract ListProperty<String> getProvidedPlugins();
+
+  @Internal
+  public abstract Property<HytaleMetricsService> getMetricsService();
+
+  // One Group:Name and version per line, in the order the server loads them
+  @OutputFile
+  public abstract RegularFileProperty getLoadOrderFile();
+
+  @TaskAction
+  public void validate() throws IOException {
+    var logger = this.getLogger();
+    PluginGraph graph = new PluginGraph();
+    List<String> problems = new ArrayList<>();
+    int sources = 0;
+
+    var metrics = this.getMetricsService().get();
+    try (var phase = metrics.start(this.getPath(), HytaleMetricsService.PHASE_VALIDATE_PLUGINS)) {
+      for (File file : this.getManifests().getAsFileTree().getFiles()) {
+        if (file.getName().equals(GenerateManifestTask.SINGLE_MANIFEST_FILE)) {
+          try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            addManifests(graph, problems, reader, "project " + file.getParentFile().getName());
+          }
+          sources++;
+        }
+      }
+
+      for (File jar : this.getModJars().getFiles()) {
+        if (jar.isFile()) {
+          addModJar(graph, problems, jar);
+          sources++;
+        }
+      }
+
+      PluginGraph.Result result = graph.resolve(PluginGraph.matcher(this.getProvidedPlugins().get()));
+      problems.addAll(result.problems());
+
+      List<String> lines = new ArrayList<>();
+      for (String id : result.loadOrder()) {
+        lines.add(id + " " + graph.version(id));
+      }
+      Path loadOrderFile = this.getLoadOrderFile().get().getAsFile().toPath();
+      Files.createDirectories(loadOrderFile.getParent());
+      Files.write(loadOrderFile, lines, StandardCharsets.UTF_8);
+      phase.bytes(Files.size(loadOrderFile)).entries(sources);
+
+      if (!problems.isEmpty()) {
+        throw new GradleException(
+          "Plugin validation found " + problems.size() + " problem(s):\n  - " + String.join("\n  - ", problems)
+        );
+      }
+      logger.lifecycle(
+        "Validated {} plugins from {} manifests, load order in {}",
+        lines.size(),
+        sources,
+        loadOrderFile
+      );
+    }
+  }
+
+  private static void addModJar(PluginGraph graph, List<String> problems, File jar) throws IOException {
+    try (ZipFile zip = new ZipFile(jar)) {
+      ZipEntry entry = zip.getEntry(GenerateManifestTask.SINGLE_MANIFEST_FILE);
+      if (entry == null) {
+        entry = zip.getEntry(GenerateManifestTask.MULTI_MANIFEST_FILE);
+      }
+      if (entry == null) {
+        problems.add(jar.getName() + " contains neither " + GenerateManifestTask.SINGLE_MANIFEST_FILE + " nor "
+                     + GenerateManifestTask.MULTI_MANIFEST_FILE);
+        return;
+      }
+
+      try (Reader reader = new InputStreamReader(zip.getInputStream(entry), StandardCharsets.UTF_8)) {
+        addManifests(graph, problems, reader, jar.getName());
+      }
+    }
+  }
+
+  // Accepts manifest.json and manifests.json, every plugin is read on its own so one broken entry hides no other
+  private static void addManifests(PluginGraph graph, List<String> problems, Reader reader, String source) {
+    JsonElement json;
+    try {
+      json = JsonParser.parseReader(reader);
+    } catch (JsonParseException e) {
+      problems.add("Invalid manifest in " + source + ": " + e.getMessage());
+      return;
+    }
+
+    for (JsonElement element : json.isJsonArray() ? json.getAsJsonArray() : List.of(json)) {
+      try {
+        graph.add(GSON.fromJson(element, ManifestJson.class), source);
+      } catch (RuntimeException e) {
+        // Gson wraps the exception of the record constructor, which rejects a missing Group, Name or Version
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        problems.add("Invalid manifest in " + source + ": " + cause.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package com.github.r0bbyyt.hytale.util;
+
+import com.github.r0bbyyt.hytale.HytaleExtension.PublicationStrategy;
+import org.gradle.api.logging.Logger;
+import org.gradle.process.ExecOperations;
+import org.gradle.process.ExecResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+
+// Places a file into the local repository, avoiding a full copy where the strategy allows it
+public final class FilePublisher {
+
+  private static final String OS_NAME = System.getProperty("os.name", "").toLowerCase(Locale.ROOT);
+
+  private final ExecOperations execOperations;
+  private final Logger logger;
+
+  public FilePublisher(ExecOperations execOperations, Logger logger) {
+    this.execOperations = execOperations;
+    this.logger = logger;
+  }
+
+  public void publish(Path source, Path target, String checksum, PublicationStrategy strategy) throws IOException {
+    if (strategy == PublicationStrategy.HARD_LINK && Files.exists(target) && Files.isSameFile(source, target)) {
+      this.logger.info("{} is already linked to {}", target, source);
+      return;
+    }
+
+    boolean published = switch (strategy) {
+      case COPY -> false;
+      case HARD_LINK -> this.hardLink(source, target);
+      case REFLINK -> this.reflink(source, target);
+      case SKIP_UNCHANGED -> this.isUnchanged(source, target, checksum);
+    };
+
+    if (!published) {
+      Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+    }
+  }
+
+  private boolean hardLink(Path source, Path target) {
+    try {
+      Files.deleteIfExists(target);
+      Files.createLink(target, source);
+      return true;
+    } catch (IOException | UnsupportedOperationException e) {
+      this.logger.info("Could not hard link {} to {}, falling back to copy: {}", target, source, e.getMessage());
+      return false;
+    }
+  }
+
+  private boolean reflink(Path source, Path target) throws IOException {
+    List<String> command = this.reflinkCommand(source, target);
+    if (command == null) {
+      this.logger.info("Reflinks are not supported on {}, falling back to copy", OS_NAME);
+      return false;
+    }
+
+    Files.deleteIfExists(target);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ExecResult result = this.execOperations.exec(spec -> {
+      spec.commandLine(command);
+      spec.setStandardOutput(output);
+      spec.setErrorOutput(output);
+      spec.setIgnoreExitValue(true);
+    });
+
+    if (result.getExitValue() != 0) {
+      this.logger.info("Could not reflink {} to {}, falling back to copy: {}", target, source, output.toString().trim());
+      return false;
+    }
+    return true;
+  }
+
+  private List<String> reflinkCommand(Path source, Path target) {
+    String from = source.toAbsolutePath().toString();
+    String to = target.toAbsolutePath().toString();
+    if (OS_NAME.contains("linux")) {
+      return List.of("cp", "--reflink=always", from, to);
+    }
+    if (OS_NAME.contains("mac")) {
+      // clonefile(2) on APFS
+      return List.of("cp", "-c", from, to);
+    }
+    return null;
+  }
+
+  private boolean isUnchanged(Path source, Path target, String checksum) throws IOException {
+    if (!Files.exists(target) || Files.size(source) != Files.size(target)) {
+      return false;
+    }
+
+    if (Files.getLastModifiedTime(source).equals(Files.getLastModifiedTime(target))) {
+      return true;
+    }
+
+    // Same size but touched, only the content can tell
+    if (checksum.equals(Util.sha256(target))) {
+      Files.setLastModifiedTime(target, Files.getLastModifiedTime(source));
+      return true;
+    }
+    return false;
+  }
+}
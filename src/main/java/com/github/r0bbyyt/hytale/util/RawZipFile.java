@@ -0,0 +1,188 @@
+package com.github.r0bbyyt.hytale.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.ZipException;
+
+// Reads the central directory of a ZIP file and hands out the entry data as stored, without inflating it
+public final class RawZipFile implements Closeable {
+
+  private static final int END_SIGNATURE = 0x06054b50;
+  private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+  private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+  private static final int CENTRAL_SIGNATURE = 0x02014b50;
+  private static final int LOCAL_SIGNATURE = 0x04034b50;
+  private static final int END_SIZE = 22;
+  private static final int ZIP64_LOCATOR_SIZE = 20;
+  private static final int ZIP64_END_SIZE = 56;
+  private static final int CENTRAL_HEADER_SIZE = 46;
+  private static final int LOCAL_HEADER_SIZE = 30;
+  private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+  private static final int ZIP64_EXTRA_ID = 0x0001;
+  private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+  private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final FileChannel channel;
+  private final List<Entry> entries;
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+  private RawZipFile(FileChannel channel, List<Entry> entries) {
+    this.channel = channel;
+    this.entries = entries;
+  }
+
+  public static RawZipFile open(Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      return new RawZipFile(channel, readCentralDirectory(channel));
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  public List<Entry> entries() {
+    return this.entries;
+  }
+
+  // Streams the stored (usually deflated) bytes of an entry, the buffer is reused between calls
+  public void readRaw(Entry entry, Consumer<ByteBuffer> consumer) throws IOException {
+    ByteBuffer header = read(this.channel, entry.localHeaderOffset(), LOCAL_HEADER_SIZE);
+    if (header.getInt(0) != LOCAL_SIGNATURE) {
+      throw new ZipException("Invalid local header for " + entry.name());
+    }
+
+    long position = entry.localHeaderOffset()
+                    + LOCAL_HEADER_SIZE
+                    + Short.toUnsignedInt(header.getShort(26))
+                    + Short.toUnsignedInt(header.getShort(28));
+    long remaining = entry.compressedSize();
+    while (remaining > 0) {
+      this.buffer.clear().limit((int) Math.min(BUFFER_SIZE, remaining));
+      int read = this.channel.read(this.buffer, position);
+      if (read < 0) {
+        throw new ZipException("Unexpected end of data for " + entry.name());
+      }
+      position += read;
+      remaining -= read;
+      consumer.accept(this.buffer.flip());
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+
+  private static List<Entry> readCentralDirectory(FileChannel channel) throws IOException {
+    long size = channel.size();
+    int tailSize = (int) Math.min(size, END_SIZE + MAX_COMMENT_LENGTH);
+    ByteBuffer tail = read(channel, size - tailSize, tailSize);
+
+    int end = -1;
+    for (int i = tailSize - END_SIZE; i >= 0; i--) {
+      if (tail.getInt(i) == END_SIGNATURE) {
+        end = i;
+        break;
+      }
+    }
+    if (end < 0) {
+      throw new ZipException("No end of central directory found");
+    }
+
+    long count = Short.toUnsignedInt(tail.getShort(end + 10));
+    long directorySize = Integer.toUnsignedLong(tail.getInt(end + 12));
+    long directoryOffset = Integer.toUnsignedLong(tail.getInt(end + 16));
+    if (count == ZIP64_MAGIC_COUNT || directorySize == ZIP64_MAGIC || directoryOffset == ZIP64_MAGIC) {
+      long endPosition = size - tailSize + end;
+      ByteBuffer locator = read(channel, endPosition - ZIP64_LOCATOR_SIZE, ZIP64_LOCATOR_SIZE);
+      if (locator.getInt(0) != ZIP64_LOCATOR_SIGNATURE) {
+        throw new ZipException("No ZIP64 end of central directory locator found");
+      }
+      ByteBuffer zip64End = read(channel, locator.getLong(8), ZIP64_END_SIZE);
+      if (zip64End.getInt(0) != ZIP64_END_SIGNATURE) {
+        throw new ZipException("No ZIP64 end of central directory found");
+      }
+      count = zip64End.getLong(32);
+      directorySize = zip64End.getLong(40);
+      directoryOffset = zip64End.getLong(48);
+    }
+
+    if (directorySize > Integer.MAX_VALUE) {
+      throw new ZipException("Central directory is too large: " + directorySize);
+    }
+
+    ByteBuffer directory = read(channel, directoryOffset, (int) directorySize);
+    List<Entry> entries = new ArrayList<>((int) Math.min(count, Integer.MAX_VALUE));
+    int position = 0;
+    for (long i = 0; i < count; i++) {
+      if (directory.getInt(position) != CENTRAL_SIGNATURE) {
+        throw new ZipException("Invalid central directory header at entry " + i);
+      }
+
+      int method = Short.toUnsignedInt(directory.getShort(position + 10));
+      long crc = Integer.toUnsignedLong(directory.getInt(position + 16));
+      long compressedSize = Integer.toUnsignedLong(directory.getInt(position + 20));
+      long uncompressedSize = Integer.toUnsignedLong(directory.getInt(position + 24));
+      int nameLength = Short.toUnsignedInt(directory.getShort(position + 28));
+      int extraLength = Short.toUnsignedInt(directory.getShort(position + 30));
+      int commentLength = Short.toUnsignedInt(directory.getShort(position + 32));
+      long localHeaderOffset = Integer.toUnsignedLong(directory.getInt(position + 42));
+
+      byte[] nameBytes = new byte[nameLength];
+      directory.get(position + CENTRAL_HEADER_SIZE, nameBytes);
+      String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+      // Values that do not fit into 32 bits are moved to the ZIP64 extra field, in this order
+      int extra = position + CENTRAL_HEADER_SIZE + nameLength;
+      int extraEnd = extra + extraLength;
+      while (extra + 4 <= extraEnd) {
+        int id = Short.toUnsignedInt(directory.getShort(extra));
+        int length = Short.toUnsignedInt(directory.getShort(extra + 2));
+        if (id == ZIP64_EXTRA_ID) {
+          int field = extra + 4;
+          if (uncompressedSize == ZIP64_MAGIC) {
+            uncompressedSize = directory.getLong(field);
+            field += Long.BYTES;
+          }
+          if (compressedSize == ZIP64_MAGIC) {
+            compressedSize = directory.getLong(field);
+            field += Long.BYTES;
+          }
+          if (localHeaderOffset == ZIP64_MAGIC) {
+            localHeaderOffset = directory.getLong(field);
+          }
+        }
+        extra += 4 + length;
+      }
+
+      entries.add(new Entry(name, method, crc, compressedSize, uncompressedSize, localHeaderOffset));
+      position = extraEnd + commentLength;
+    }
+    return Collections.unmodifiableList(entries);
+  }
+
+  private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new ZipException("Unexpected end of file");
+      }
+    }
+    return buffer.flip();
+  }
+
+  public record Entry(String name, int method, long crc, long compressedSize, long size, long localHeaderOffset) {
+  }
+}
@@ -2,8 +2,22 @@ package com.github.r0bbyyt.hytale.util;
 
 import org.gradle.api.plugins.ExtensionAware;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
 public final class Util {
 
+  private static final String SHA_256 = "SHA-256";
+  private static final int BUFFER_SIZE = 64 * 1024;
+
   public static <T> T getExtension(Object obj, Class<T> extension) {
     if (!(obj instanceof ExtensionAware aware)) {
       throw new IllegalStateException("The given object " + obj + " is not an extension aware object.");
@@ -12,4 +26,44 @@ public final class Util {
     return aware.getExtensions().getByType(extension);
   }
 
+  public static MessageDigest newSha256() {
+    try {
+      return MessageDigest.getInstance(SHA_256);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(SHA_256 + " is not supported by this JVM", e);
+    }
+  }
+
+  public static String sha256(Path file) throws IOException {
+    MessageDigest digest = newSha256();
+    byte[] buffer = new byte[BUFFER_SIZE];
+    try (InputStream is = Files.newInputStream(file)) {
+      int read;
+      while ((read = is.read(buffer)) != -1) {
+        digest.update(buffer, 0, read);
+      }
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  public static void deleteDirectory(Path directory) throws IOException {
+    if (!Files.exists(directory)) {
+      return;
+    }
+
+    Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+        Files.delete(file);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+        Files.delete(dir);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
 }
@@ -0,0 +1,156 @@
+package com.github.r0bbyyt.hytale;
+
+import com.github.r0bbyyt.hytale.provider.ServerVersionSource;
+import com.github.r0bbyyt.hytale.run.ServerArguments;
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigurationCacheTest {
+
+  private static final String REUSED = "Reusing configuration cache.";
+  private static final String STORED = "Configuration cache entry stored.";
+  private static final String ISOLATED_PROJECTS = "-Dorg.gradle.unsafe.isolated-projects=true";
+  private static final String INSTALLATION_DIR = "hytale-installation";
+  private static final String SERVER_VERSION = "2026.1.0-test";
+
+  private static final List<String> BUILD_TASKS = List.of("compileJava", "hytaleJar", "validateHytalePlugins");
+  private static final List<String> RUN_TASKS = List.of("runServer", "--dry-run");
+
+  @TempDir
+  Path projectDir;
+
+  @BeforeEach
+  void writeInstallation() throws IOException {
+    Path serverJar = this.projectDir.resolve(INSTALLATION_DIR + "/" + HytalePlugin.SERVER_SUBDIRECTORY + "/"
+                                             + HytalePlugin.SERVER_JAR_NAME);
+    Files.createDirectories(serverJar.getParent());
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifest.getMainAttributes().putValue(ServerVersionSource.MANIFEST_VERSION_ATTRIBUTE, SERVER_VERSION);
+    try (JarOutputStream ignored = new JarOutputStream(Files.newOutputStream(serverJar), manifest)) {
+      // Only the version in the manifest is read
+    }
+
+    Path assets = this.projectDir.resolve(INSTALLATION_DIR + "/" + ServerArguments.ASSETS_FILE);
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(assets))) {
+      out.putNextEntry(new ZipEntry("Common/"));
+      out.closeEntry();
+    }
+  }
+
+  @Test
+  void singleProjectReusesTheCache() throws IOException {
+    this.write("settings.gradle.kts", "rootProject.name = \"single\"\n");
+    this.writePlugin("", "Single", "");
+
+    this.assertReused(BUILD_TASKS);
+    this.assertReused(RUN_TASKS);
+  }
+
+  @Test
+  void multiProjectReusesTheCache() throws IOException {
+    this.writeMultiProject();
+
+    this.assertReused(BUILD_TASKS);
+    this.assertReused(RUN_TASKS);
+  }
+
+  @Test
+  void multiProjectReusesTheCacheWithIsolatedProjects() throws IOException {
+    this.writeMultiProject();
+
+    this.assertReused(concat(BUILD_TASKS, ISOLATED_PROJECTS));
+    this.assertReused(concat(RUN_TASKS, ISOLATED_PROJECTS));
+  }
+
+  // The second plugin bundles a library project and stages the first plugin through hytaleMods
+  private void writeMultiProject() throws IOException {
+    this.write("settings.gradle.kts", "rootProject.name = \"multi\"\ninclude(\"first\", \"second\", \"common\")\n");
+    this.writePlugin("", "Root", "");
+    this.writePlugin("first/", "First", "");
+    this.writePlugin("second/", "Second", """
+      hytaleMods(project(":first"))
+      shade(project(":common"))
+      """);
+    this.write("common/build.gradle.kts", "plugins {\n  `java-library`\n}\n");
+    this.write("common/src/main/java/com/example/common/Strings.java", """
+      package com.example.common;
+
+      public class Strings {
+      }
+      """);
+  }
+
+  private void writePlugin(String directory, String name, String dependencies) throws IOException {
+    this.write(directory + "build.gradle.kts", """
+      plugins {
+        java
+        id("com.github.r0bbyyt.hytale")
+      }
+
+      hytale {
+        installationPath.set(file("$rootDir/%s"))
+        plugins {
+          create("%s") {
+            group.set("com.example")
+            version.set("1.0.0")
+            main.set("com.example.%s")
+          }
+        }
+      }
+
+      dependencies {
+      %s}
+      """.formatted(INSTALLATION_DIR, name, name, dependencies));
+    this.write(directory + "src/main/java/com/example/" + name + ".java", """
+      package com.example;
+
+      public class %s {
+      }
+      """.formatted(name));
+  }
+
+  private void assertReused(List<String> arguments) {
+    BuildResult first = this.run(arguments);
+    assertTrue(first.getOutput().contains(STORED), first::getOutput);
+
+    BuildResult second = this.run(arguments);
+    assertTrue(second.getOutput().contains(REUSED), second::getOutput);
+  }
+
+  private BuildResult run(List<String> arguments) {
+    return GradleRunner.create()
+      .withProjectDir(this.projectDir.toFile())
+      .withPluginClasspath()
+      .withArguments(concat(arguments, "--configuration-cache", "--stacktrace"))
+      .build();
+  }
+
+  private static List<String> concat(List<String> arguments, String... more) {
+    List<String> all = new ArrayList<>(arguments);
+    all.addAll(List.of(more));
+    return all;
+  }
+
+  private void write(String path, String content) throws IOException {
+    Path file = this.projectDir.resolve(path);
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, content);
+  }
+}
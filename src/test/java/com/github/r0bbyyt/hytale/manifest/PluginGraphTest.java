@@ -0,0 +1,134 @@
+package com.github.r0bbyyt.hytale.manifest;
+
+import com.github.r0bbyyt.hytale.manifest.json.ManifestJson;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PluginGraphTest {
+
+  private static final List<String> NO_PROVIDED = List.of();
+
+  @Test
+  void dependenciesLoadFirst() {
+    PluginGraph graph = new PluginGraph();
+    graph.add(manifest("b", "1.0.0", Map.of("acme:a", "^1.0.0"), Map.of(), Map.of(), List.of()), "b.jar");
+    graph.add(manifest("a", "1.2.0", Map.of(), Map.of(), Map.of(), List.of()), "a.jar");
+    graph.add(manifest("c", "1.0.0", Map.of(), Map.of(), Map.of("acme:a", "*"), List.of()), "c.jar");
+
+    PluginGraph.Result result = graph.resolve(PluginGraph.matcher(NO_PROVIDED));
+
+    assertEquals(List.of(), result.problems());
+    assertEquals(List.of("acme:c", "acme:a", "acme:b"), result.loadOrder());
+  }
+
+  @Test
+  void subPluginsLoadAfterTheirParent() {
+    ManifestJson child = manifest("a-child", "1.0.0", Map.of(), Map.of(), Map.of(), List.of());
+    PluginGraph graph = new PluginGraph();
+    graph.add(manifest("z", "1.0.0", Map.of(), Map.of(), Map.of(), List.of(child)), "z.jar");
+
+    assertEquals(List.of("acme:z", "acme:a-child"), graph.resolve(PluginGraph.matcher(NO_PROVIDED)).loadOrder());
+  }
+
+  @Test
+  void cycleIsReportedWithItsPath() {
+    PluginGraph graph = new PluginGraph();
+    graph.add(manifest("a", "1.0.0", Map.of("acme:b", "*"), Map.of(), Map.of(), List.of()), "a.jar");
+    graph.add(manifest("b", "1.0.0", Map.of("acme:c", "*"), Map.of(), Map.of(), List.of()), "b.jar");
+    graph.add(manifest("c", "1.0.0", Map.of("acme:a", "*"), Map.of(), Map.of(), List.of()), "c.jar");
+    graph.add(manifest("d", "1.0.0", Map.of("acme:a", "*"), Map.of(), Map.of(), List.of()), "d.jar");
+
+    PluginGraph.Result result = graph.resolve(PluginGraph.matcher(NO_PROVIDED));
+
+    assertEquals(List.of(), result.loadOrder());
+    assertEquals(1, result.problems().size());
+    String problem = result.problems().getFirst();
+    assertTrue(problem.startsWith("Load order cycle: "), problem);
+    for (String id : List.of("acme:a", "acme:b", "acme:c")) {
+      assertTrue(problem.contains(id), problem);
+    }
+    assertFalse(problem.contains("acme:d"), problem);
+  }
+
+  @Test
+  void duplicateIdsAreReported() {
+    PluginGraph graph = new PluginGraph();
+    graph.add(manifest("a", "1.0.0", Map.of(), Map.of(), Map.of(), List.of()), "first.jar");
+    graph.add(manifest("a", "2.0.0", Map.of(), Map.of(), Map.of(), List.of()), "second.jar");
+
+    assertEquals(
+      List.of("Plugin acme:a is defined by both first.jar and second.jar"),
+      graph.resolve(PluginGraph.matcher(NO_PROVIDED)).problems()
+    );
+  }
+
+  @Test
+  void missingDependenciesAreReportedUnlessProvided() {
+    PluginGraph graph = new PluginGraph();
+    graph.add(
+      manifest("a", "1.0.0", Map.of("Hytale:Core", "*", "other:Missing", "1.0.0"), Map.of(), Map.of(), List.of()),
+      "a.jar"
+    );
+
+    List<String> problems = graph.resolve(PluginGraph.matcher(List.of("Hytale:*"))).problems();
+
+    assertEquals(1, problems.size());
+    assertTrue(problems.getFirst().contains("other:Missing"), problems::toString);
+  }
+
+  @Test
+  void providedGlobsMatchWholeIds() {
+    var provided = PluginGraph.matcher(List.of("Hytale:*", "acme:Lib?"));
+
+    assertTrue(provided.test("Hytale:Core"));
+    assertTrue(provided.test("acme:Lib2"));
+    assertFalse(provided.test("acme:Lib"));
+    assertFalse(provided.test("NotHytale:Core"));
+  }
+
+  @Test
+  void versionMismatchAndInvalidRangesAreReported() {
+    PluginGraph graph = new PluginGraph();
+    graph.add(manifest("a", "2.1.0", Map.of(), Map.of(), Map.of(), List.of()), "a.jar");
+    graph.add(manifest("b", "1.0.0", Map.of("acme:a", "~1.2"), Map.of(), Map.of(), List.of()), "b.jar");
+    graph.add(manifest("c", "1.0.0", Map.of(), Map.of("acme:a", "2.0.0 <"), Map.of(), List.of()), "c.jar");
+
+    List<String> problems = graph.resolve(PluginGraph.matcher(NO_PROVIDED)).problems();
+
+    assertEquals(2, problems.size(), problems::toString);
+    assertTrue(problems.get(0).contains("acme:b requires acme:a ~1.2, but a.jar has 2.1.0"), problems::toString);
+    assertTrue(problems.get(1).contains("acme:c has an invalid version range"), problems::toString);
+  }
+
+  private static ManifestJson manifest(
+    String name,
+    String version,
+    Map<String, String> dependencies,
+    Map<String, String> optionalDependencies,
+    Map<String, String> loadBefore,
+    List<ManifestJson> subPlugins
+  ) {
+    return new ManifestJson(
+      "acme",
+      name,
+      version,
+      null,
+      null,
+      null,
+      null,
+      null,
+      dependencies,
+      optionalDependencies,
+      loadBefore,
+      subPlugins,
+      null,
+      null
+    );
+  }
+}
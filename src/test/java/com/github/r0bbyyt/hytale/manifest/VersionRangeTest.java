@@ -0,0 +1,99 @@
+package com.github.r0bbyyt.hytale.manifest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VersionRangeTest {
+
+  @Test
+  void anyMatchesEverything() {
+    assertTrue(VersionRange.parse("*").contains("0.0.1"));
+    assertTrue(VersionRange.parse("").contains("12.3.4-beta"));
+  }
+
+  @Test
+  void plainVersionIsExact() {
+    VersionRange range = VersionRange.parse("1.2.0");
+    assertTrue(range.contains("1.2.0"));
+    assertTrue(range.contains("1.2"));
+    assertFalse(range.contains("1.2.1"));
+  }
+
+  @Test
+  void comparisonsCombineWithAnd() {
+    VersionRange range = VersionRange.parse(">=1.2.0 <2.0.0");
+    assertTrue(range.contains("1.2.0"));
+    assertTrue(range.contains("1.9.9"));
+    assertFalse(range.contains("1.1.9"));
+    assertFalse(range.contains("2.0.0"));
+  }
+
+  @Test
+  void operatorBindsToTheNextVersion() {
+    VersionRange range = VersionRange.parse(">= 1.2.0 < 2.0.0");
+    assertTrue(range.contains("1.5.0"));
+    assertFalse(range.contains("1.0.0"));
+    assertFalse(range.contains("2.0.0"));
+  }
+
+  @Test
+  void danglingOperatorIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> VersionRange.parse("1.0.0 >="));
+    assertThrows(IllegalArgumentException.class, () -> VersionRange.parse(">= || 2.0.0"));
+  }
+
+  @Test
+  void caretKeepsTheFirstNonZeroComponent() {
+    VersionRange major = VersionRange.parse("^1.2.3");
+    assertTrue(major.contains("1.2.3"));
+    assertTrue(major.contains("1.9.0"));
+    assertFalse(major.contains("1.2.2"));
+    assertFalse(major.contains("2.0.0"));
+
+    VersionRange minor = VersionRange.parse("^0.2.3");
+    assertTrue(minor.contains("0.2.9"));
+    assertFalse(minor.contains("0.3.0"));
+
+    VersionRange patch = VersionRange.parse("^0.0.3");
+    assertTrue(patch.contains("0.0.3"));
+    assertFalse(patch.contains("0.0.4"));
+  }
+
+  @Test
+  void tildeKeepsTheMinorVersion() {
+    VersionRange range = VersionRange.parse("~1.2.3");
+    assertTrue(range.contains("1.2.9"));
+    assertFalse(range.contains("1.3.0"));
+
+    VersionRange majorOnly = VersionRange.parse("~1");
+    assertTrue(majorOnly.contains("1.9.0"));
+    assertFalse(majorOnly.contains("2.0.0"));
+  }
+
+  @Test
+  void alternativesCombineWithOr() {
+    VersionRange range = VersionRange.parse("^1.0.0 || >=3.0.0");
+    assertTrue(range.contains("1.4.0"));
+    assertTrue(range.contains("3.1.0"));
+    assertFalse(range.contains("2.0.0"));
+  }
+
+  @Test
+  void preReleasesSortBeforeTheirRelease() {
+    assertTrue(VersionRange.compare("1.0.0-rc.1", "1.0.0") < 0);
+    assertTrue(VersionRange.compare("1.0.0+build.5", "1.0.0") == 0);
+  }
+
+  @Test
+  void preReleaseIdentifiersCompareNumerically() {
+    assertTrue(VersionRange.compare("1.0.0-rc.2", "1.0.0-rc.10") < 0);
+    assertTrue(VersionRange.compare("1.0.0-alpha", "1.0.0-alpha.1") < 0);
+    assertTrue(VersionRange.compare("1.0.0-1", "1.0.0-alpha") < 0);
+    assertTrue(VersionRange.compare("1.0.0-beta", "1.0.0-alpha.9") > 0);
+    assertEquals(0, VersionRange.compare("1.0.0-rc.1", "1.0.0-rc.1"));
+  }
+}